@@ -0,0 +1,48 @@
+package water.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import water.compiler.CompilationResult;
+import water.compiler.CompilerOptions;
+import water.compiler.WaterCompiler;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles a whole corpus in memory with {@link WaterCompiler#compile(Map, CompilerOptions)}, from source to class files.
+ * One operation is one build of the corpus.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompileBenchmark {
+
+	@Param({ "tests", "synthetic-100", "synthetic-1000" })
+	public String corpus;
+
+	@Param({ "1", "4" })
+	public int threads;
+
+	private Map<String, String> sources;
+	private CompilerOptions options;
+
+	@Setup
+	public void setup() throws IOException {
+		sources = Corpus.load(corpus);
+
+		options = new CompilerOptions();
+		options.setThreads(threads);
+
+		CompilationResult result = WaterCompiler.compile(sources, options);
+		if(!result.isSuccessful()) throw new IllegalStateException("Corpus '%s' does not compile: %s".formatted(corpus, result.getDiagnostics().get(0)));
+	}
+
+	@Benchmark
+	public CompilationResult compile() {
+		return WaterCompiler.compile(sources, options);
+	}
+}
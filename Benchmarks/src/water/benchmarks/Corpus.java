@@ -0,0 +1,59 @@
+package water.benchmarks;
+
+import water.compiler.CompilerOptions;
+import water.compiler.WaterCompiler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The sources which benchmarks compile, selected by name:
+ * "tests" - every file of the golden test corpus (testing/tests, or the 'water.tests' system property) which compiles alone.
+ * "synthetic-N" - N files generated by {@link ProjectGenerator}, with its default shape.
+ */
+final class Corpus {
+
+	private Corpus() {}
+
+	/**
+	 * @param name The name of the corpus
+	 * @return The content of each source file, keyed by file name
+	 * @throws IOException If the test corpus could not be read
+	 */
+	static Map<String, String> load(String name) throws IOException {
+		if(name.equals("tests")) return readTests(Path.of(System.getProperty("water.tests", "testing/tests")));
+		if(name.startsWith("synthetic-")) return synthetic(Integer.parseInt(name.substring("synthetic-".length())));
+
+		throw new IllegalArgumentException("Unknown corpus '%s'".formatted(name));
+	}
+
+	private static Map<String, String> readTests(Path directory) throws IOException {
+		List<Path> files;
+		try(Stream<Path> listing = Files.list(directory)) {
+			files = listing.filter(p -> p.toString().endsWith(".wtr")).sorted().collect(Collectors.toList());
+		}
+		if(files.isEmpty()) throw new IOException("No sources found in '%s'".formatted(directory.toAbsolutePath()));
+
+		Map<String, String> sources = new LinkedHashMap<>();
+		for(Path file : files) {
+			String name = file.getFileName().toString();
+			String source = Files.readString(file);
+
+			// Some tests check the errors the compiler reports, which would stop the whole corpus from compiling
+			if(WaterCompiler.compile(Map.of(name, source), new CompilerOptions()).isSuccessful()) {
+				sources.put(name, source);
+			}
+		}
+		return sources;
+	}
+
+	private static Map<String, String> synthetic(int files) {
+		return new ProjectGenerator(2, 3, 2, 4, 1, 100).generate(files);
+	}
+}
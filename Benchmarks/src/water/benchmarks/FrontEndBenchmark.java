@@ -0,0 +1,50 @@
+package water.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import water.compiler.lexer.Lexer;
+import water.compiler.lexer.TokenStream;
+import water.compiler.parser.Parser;
+import water.compiler.parser.UnexpectedTokenException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexes and parses every file of a corpus, on one thread. One operation is the whole corpus.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FrontEndBenchmark {
+
+	@Param({ "tests", "synthetic-100" })
+	public String corpus;
+
+	private List<String> sources;
+
+	@Setup
+	public void setup() throws IOException {
+		sources = List.copyOf(Corpus.load(corpus).values());
+	}
+
+	@Benchmark
+	public void lex(Blackhole blackhole) {
+		for(String source : sources) {
+			TokenStream tokens = new Lexer().lex(source);
+			tokens.lexAll();
+			blackhole.consume(tokens);
+		}
+	}
+
+	@Benchmark
+	public void parse(Blackhole blackhole) throws UnexpectedTokenException {
+		for(String source : sources) {
+			blackhole.consume(new Parser().parse(new Lexer().lex(source)));
+		}
+	}
+}
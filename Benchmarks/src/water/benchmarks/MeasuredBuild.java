@@ -0,0 +1,36 @@
+package water.benchmarks;
+
+import water.compiler.Main;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+/**
+ * Runs the command line compiler, printing its wall time and peak heap usage to stderr when the JVM exits.
+ * This is run in its own JVM by {@link ScalabilityRun}, so that each build's heap is measured separately.
+ *
+ * The peak heap is the sum of the peak usage of each heap pool, so it is an upper bound,
+ * as the pools may not all have peaked at the same time.
+ */
+public class MeasuredBuild {
+	/** Starts the line which {@link ScalabilityRun} reads the measurements from */
+	static final String RESULT_PREFIX = "water-build-result";
+
+	public static void main(String[] args) {
+		long start = System.nanoTime();
+
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			long wallTime = System.nanoTime() - start;
+
+			long peakHeap = 0;
+			for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if(pool.getType() == MemoryType.HEAP) peakHeap += pool.getPeakUsage().getUsed();
+			}
+
+			System.err.printf("%s %d %d%n", RESULT_PREFIX, wallTime, peakHeap);
+		}));
+
+		Main.main(args);
+	}
+}
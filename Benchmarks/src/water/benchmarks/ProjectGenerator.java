@@ -0,0 +1,167 @@
+package water.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates Water projects of any number of files, for measuring how the compiler scales.
+ *
+ * File i is "File{i}.wtr", in package "gen.p{i / filesPerPackage}", and declares:
+ * classes, each with a field, a constructor, and methods returning a nested arithmetic expression;
+ * enums, which are compared against each other; and a top-level function, which calls into earlier files.
+ * Each file imports the first class and enum of each of the files before it (up to importsPerFile of them),
+ * and calls the top-level function of the file before it, so that files only depend on those before them.
+ */
+public class ProjectGenerator {
+	private final int classesPerFile;
+	private final int functionsPerClass;
+	private final int importsPerFile;
+	private final int expressionDepth;
+	private final int enumsPerFile;
+	private final int filesPerPackage;
+
+	/**
+	 * @param classesPerFile The number of classes declared in each file, at least 1
+	 * @param functionsPerClass The number of methods of each class, at least 1
+	 * @param importsPerFile The number of earlier files whose class and enum are imported and used by each file
+	 * @param expressionDepth The number of binary operators nested in the expression of each method
+	 * @param enumsPerFile The number of enums declared in each file, at least 1
+	 * @param filesPerPackage The number of files in each package
+	 */
+	public ProjectGenerator(int classesPerFile, int functionsPerClass, int importsPerFile, int expressionDepth, int enumsPerFile, int filesPerPackage) {
+		if(classesPerFile < 1 || functionsPerClass < 1 || enumsPerFile < 1 || filesPerPackage < 1 || importsPerFile < 0 || expressionDepth < 0) {
+			throw new IllegalArgumentException("Invalid project shape");
+		}
+		this.classesPerFile = classesPerFile;
+		this.functionsPerClass = functionsPerClass;
+		this.importsPerFile = importsPerFile;
+		this.expressionDepth = expressionDepth;
+		this.enumsPerFile = enumsPerFile;
+		this.filesPerPackage = filesPerPackage;
+	}
+
+	/**
+	 * Generates a project in memory.
+	 * @param files The number of files
+	 * @return The content of each file, keyed by its path relative to the project root, in dependency order
+	 */
+	public Map<String, String> generate(int files) {
+		Map<String, String> sources = new LinkedHashMap<>();
+		for(int i = 0; i < files; i++) {
+			sources.put(getPath(i), getSource(i));
+		}
+		return sources;
+	}
+
+	/**
+	 * Writes a project to disk, one file at a time, so that large projects are not held in memory.
+	 * @param directory The project root
+	 * @param files The number of files
+	 * @return The path of each file, in dependency order
+	 * @throws IOException If a file could not be written
+	 */
+	public List<Path> write(Path directory, int files) throws IOException {
+		List<Path> paths = new ArrayList<>(files);
+		for(int i = 0; i < files; i++) {
+			Path path = directory.resolve(getPath(i));
+			Files.createDirectories(path.getParent());
+			Files.writeString(path, getSource(i));
+			paths.add(path);
+		}
+		return paths;
+	}
+
+	/**
+	 * @param file The index of the file
+	 * @return The path of the file, relative to the project root
+	 */
+	public String getPath(int file) {
+		return "gen/p%d/File%d.wtr".formatted(file / filesPerPackage, file);
+	}
+
+	private String getPackage(int file) {
+		return "gen.p%d".formatted(file / filesPerPackage);
+	}
+
+	/**
+	 * @param file The index of the file
+	 * @return The source of the file
+	 */
+	public String getSource(int file) {
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(getPackage(file)).append(";\n\n");
+
+		int firstImport = Math.max(0, file - importsPerFile);
+		for(int dependency = firstImport; dependency < file; dependency++) {
+			String dependencyPackage = getPackage(dependency);
+			source.append("import %s.File%dClass0;\n".formatted(dependencyPackage, dependency));
+			source.append("import %s.File%dEnum0;\n".formatted(dependencyPackage, dependency));
+		}
+		if(file > 0) source.append("import %s.File%dWtr;\n".formatted(getPackage(file - 1), file - 1));
+		source.append('\n');
+
+		for(int klass = 0; klass < classesPerFile; klass++) {
+			appendClass(source, file, klass);
+		}
+
+		for(int enumeration = 0; enumeration < enumsPerFile; enumeration++) {
+			source.append("enum File%dEnum%d {\n\tFIRST,\n\tSECOND,\n\tTHIRD\n}\n\n".formatted(file, enumeration));
+		}
+
+		source.append("function run%d(seed: int) -> int {\n".formatted(file));
+		source.append("\tvar total = seed;\n");
+		for(int klass = 0; klass < classesPerFile; klass++) {
+			source.append("\ttotal += new File%dClass%d(seed).compute0(total);\n".formatted(file, klass));
+		}
+		for(int dependency = firstImport; dependency < file; dependency++) {
+			source.append("\ttotal += new File%dClass0(total).compute0(seed);\n".formatted(dependency));
+			source.append("\tif(File%1$dEnum0.values()[total %% 3] == File%1$dEnum0.SECOND) {\n\t\ttotal += 1;\n\t}\n".formatted(dependency));
+		}
+		for(int enumeration = 0; enumeration < enumsPerFile; enumeration++) {
+			source.append("\tif(File%1$dEnum%2$d.values()[seed %% 3] == File%1$dEnum%2$d.THIRD) {\n\t\ttotal -= 1;\n\t}\n".formatted(file, enumeration));
+		}
+		// Never taken when run, so a large project does not recurse through every file
+		if(file > 0) source.append("\tif(seed < 0) {\n\t\ttotal += File%dWtr.run%d(seed);\n\t}\n".formatted(file - 1, file - 1));
+		source.append("\treturn total;\n}\n\n");
+
+		source.append("function main() {\n\tprintln(run%d(3));\n}\n".formatted(file));
+		return source.toString();
+	}
+
+	private void appendClass(StringBuilder source, int file, int klass) {
+		source.append("class File%dClass%d {\n".formatted(file, klass));
+		source.append("\tvar value: int = 0;\n\n");
+		source.append("\tconstructor(value: int) {\n\t\tthis.value = value;\n\t}\n");
+
+		for(int function = 0; function < functionsPerClass; function++) {
+			source.append("\n\tfunction compute%d(x: int) -> int {\n".formatted(function));
+			source.append("\t\treturn ").append(expression(function)).append(";\n");
+			source.append("\t}\n");
+		}
+		source.append("}\n\n");
+	}
+
+	/**
+	 * Builds an expression of nested binary operators, cycling through the arithmetic, bitwise, and shift operators.
+	 */
+	private String expression(int seed) {
+		String[] operators = { "+", "*", "-", "%", "^", "&", "|", "<<", ">>" };
+
+		String expression = "x";
+		for(int depth = 0; depth < expressionDepth; depth++) {
+			String operator = operators[(seed + depth) % operators.length];
+			String operand = switch (operator) {
+				case "%" -> "7";
+				case "<<", ">>" -> "1";
+				default -> depth % 2 == 0 ? "value" : String.valueOf(depth + 1);
+			};
+			expression = "(%s %s %s)".formatted(expression, operator, operand);
+		}
+		return expression;
+	}
+}
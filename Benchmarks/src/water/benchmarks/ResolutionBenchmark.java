@@ -0,0 +1,82 @@
+package water.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import water.compiler.compiler.Context;
+import water.compiler.compiler.Function;
+import water.compiler.compiler.FunctionType;
+import water.compiler.compiler.SemanticException;
+import water.compiler.lexer.Token;
+import water.compiler.lexer.TokenType;
+import water.compiler.parser.nodes.classes.MethodCallNode;
+import water.compiler.parser.nodes.value.NumberNode;
+import water.compiler.parser.nodes.value.StringNode;
+import water.compiler.symbol.SymbolTable;
+import water.compiler.util.WaterType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves a call to a function of the outermost scope from a nested scope, and an overloaded JDK method
+ * ('"water".substring(1, 3)') both with its overload already chosen, and from a new symbol table.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResolutionBenchmark {
+
+	/** The number of scopes between the call and the outermost scope, each declaring a function of its own */
+	@Param({ "1", "8", "32" })
+	public int depth;
+
+	private SymbolTable classpathSymbols;
+	private Context context;
+	private water.compiler.compiler.Scope scope;
+	private MethodCallNode call;
+
+	@Setup
+	public void setup() throws SemanticException {
+		classpathSymbols = new SymbolTable(ResolutionBenchmark.class.getClassLoader());
+
+		context = new Context();
+		context.setSource("Benchmark.wtr");
+		context.setSymbols(new SymbolTable(classpathSymbols, Map.of()));
+
+		scope = new water.compiler.compiler.Scope(context);
+		for(int i = 1; i < depth; i++) {
+			scope = scope.nextDepth();
+			scope.addFunction(new Function(FunctionType.STATIC, "helper" + i, "BenchmarkWtr", WaterType.getMethodType("(I)I")));
+		}
+		context.setScope(scope);
+
+		call = new MethodCallNode(
+				new StringNode(new Token(TokenType.STRING, "\"water\"", 1, 1)),
+				new Token(TokenType.IDENTIFIER, "substring", 1, 1),
+				List.of(new NumberNode(new Token(TokenType.NUMBER, "1", 1, 1)), new NumberNode(new Token(TokenType.NUMBER, "3", 1, 1))),
+				false
+		);
+		// The argument types are computed once per scope, leaving only the resolution of the method to be measured
+		call.computeReturnType(context);
+	}
+
+	@Benchmark
+	public Function lookupFunction() throws ClassNotFoundException {
+		return scope.lookupFunction("println", WaterType.STRING_TYPE);
+	}
+
+	@Benchmark
+	public WaterType resolveMethod() throws SemanticException {
+		return call.computeReturnType(context);
+	}
+
+	@Benchmark
+	public WaterType resolveMethodUncached() throws SemanticException {
+		// The classpath symbols are kept, as they are between the phases of a build
+		context.setSymbols(new SymbolTable(classpathSymbols, Map.of()));
+		return call.computeReturnType(context);
+	}
+}
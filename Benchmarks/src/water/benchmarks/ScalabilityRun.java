@@ -0,0 +1,161 @@
+package water.benchmarks;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.beust.jcommander.Parameters;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Measures how the command line compiler scales with the size of a project.
+ * For each project size, a project is generated by {@link ProjectGenerator}, then compiled by {@link MeasuredBuild}
+ * in a new JVM, recording the wall time and peak heap of the build.
+ */
+@Parameters(separators = " |=")
+public class ScalabilityRun {
+
+	@Parameter(names = { "-h", "--help" }, description = "Shows a help page", help = true)
+	private boolean help = false;
+
+	@Parameter(names = { "--sizes" }, description = "The numbers of files to generate, separated by commas")
+	private String sizes = "10,100,1000,10000,50000";
+
+	@Parameter(names = { "--directory" }, description = "The directory which projects are generated in")
+	private String directory = "scalability";
+
+	@Parameter(names = { "--classes" }, description = "The number of classes in each file")
+	private int classes = 2;
+
+	@Parameter(names = { "--functions" }, description = "The number of methods in each class")
+	private int functions = 3;
+
+	@Parameter(names = { "--imports" }, description = "The number of earlier files each file imports from")
+	private int imports = 2;
+
+	@Parameter(names = { "--depth" }, description = "The number of nested operators in each expression")
+	private int depth = 4;
+
+	@Parameter(names = { "--enums" }, description = "The number of enums in each file")
+	private int enums = 1;
+
+	@Parameter(names = { "--files-per-package" }, description = "The number of files in each package")
+	private int filesPerPackage = 100;
+
+	@Parameter(names = { "--jvm-args" }, description = "Arguments of the JVM running each build, separated by spaces")
+	private String jvmArgs = "";
+
+	@Parameter(names = { "--compiler-args" }, description = "Additional arguments of the compiler, separated by spaces")
+	private String compilerArgs = "";
+
+	@Parameter(names = { "--csv" }, description = "A file to also write the results to, as CSV")
+	private String csv = null;
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		ScalabilityRun run = new ScalabilityRun();
+		JCommander jCommander = JCommander.newBuilder().addObject(run).build();
+		jCommander.setProgramName("scalability");
+
+		try {
+			jCommander.parse(args);
+		} catch (ParameterException e) {
+			System.err.println("Invalid Parameters: " + e.getLocalizedMessage());
+			jCommander.usage();
+			System.exit(1);
+		}
+		if(run.help) {
+			jCommander.usage();
+			return;
+		}
+
+		System.exit(run.run());
+	}
+
+	private record Result(int files, long wallTime, long peakHeap, int exitCode) {}
+
+	private int run() throws IOException, InterruptedException {
+		ProjectGenerator generator = new ProjectGenerator(classes, functions, imports, depth, enums, filesPerPackage);
+
+		List<Result> results = new ArrayList<>();
+		System.out.printf("%10s %12s %14s%n", "files", "wall (ms)", "peak heap (MB)");
+
+		for(String size : sizes.split(",")) {
+			int files = Integer.parseInt(size.trim());
+			Path project = Path.of(directory, "project-" + files);
+
+			List<Path> paths = generator.write(project.resolve("src"), files);
+			Result result = build(project, paths);
+			results.add(result);
+
+			if(result.exitCode() != 0) {
+				System.out.printf("%10d build failed with exit code %d%n", files, result.exitCode());
+				return result.exitCode();
+			}
+			System.out.printf("%10d %12.1f %14.1f%n", files, result.wallTime() / 1_000_000.0, result.peakHeap() / (1024.0 * 1024.0));
+		}
+
+		if(csv != null) {
+			try(PrintStream out = new PrintStream(Files.newOutputStream(Path.of(csv)))) {
+				out.println("files,wall_ms,peak_heap_bytes");
+				for(Result result : results) {
+					out.printf("%d,%.1f,%d%n", result.files(), result.wallTime() / 1_000_000.0, result.peakHeap());
+				}
+			}
+		}
+		return 0;
+	}
+
+	private Result build(Path project, List<Path> paths) throws IOException, InterruptedException {
+		List<String> arguments = new ArrayList<>(split(jvmArgs));
+		arguments.add("-cp");
+		arguments.add(System.getProperty("java.class.path"));
+		arguments.add(MeasuredBuild.class.getName());
+		arguments.add("-d");
+		arguments.add(project.resolve("out").toString());
+		arguments.addAll(split(compilerArgs));
+		paths.forEach(p -> arguments.add(p.toString()));
+
+		// The arguments are passed to the launcher in a file, as the file list can be longer than a command line may be
+		Path argumentFile = project.resolve("arguments.txt");
+		Files.write(argumentFile, arguments.stream().map(ScalabilityRun::quote).collect(Collectors.toList()));
+
+		List<String> command = List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(), "@" + argumentFile);
+
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+		long wallTime = -1;
+		long peakHeap = -1;
+		try(BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+			String line;
+			while((line = output.readLine()) != null) {
+				if(line.startsWith(MeasuredBuild.RESULT_PREFIX + " ")) {
+					String[] measurements = line.split(" ");
+					wallTime = Long.parseLong(measurements[1]);
+					peakHeap = Long.parseLong(measurements[2]);
+				}
+				else {
+					System.out.println(line);
+				}
+			}
+		}
+
+		return new Result(paths.size(), wallTime, peakHeap, process.waitFor());
+	}
+
+	private static String quote(String argument) {
+		return '"' + argument.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+	}
+
+	private static List<String> split(String arguments) {
+		return Arrays.stream(arguments.trim().split("\\s+")).filter(a -> !a.isEmpty()).collect(Collectors.toList());
+	}
+}
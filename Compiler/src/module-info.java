@@ -2,5 +2,8 @@ module water.compiler {
 	requires jcommander;
 	requires org.objectweb.asm;
 	requires water.runtime;
+	requires jdk.jfr;
+	exports water.compiler;
 	opens water.compiler to jcommander;
+	opens water.compiler.util to jcommander;
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package water.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Packages a compiled jar for fast startup with a dynamic class data sharing (AppCDS) archive.
+ *
+ * The program is run once, as a training run, with '-XX:ArchiveClassesAtExit', which archives every class it loaded -
+ * its own, and those of the JDK and classpath - as the JVM exits. A launcher script is then written next to the jar,
+ * which runs it with '-XX:SharedArchiveFile', so those classes are mapped from the archive rather than loaded and verified.
+ *
+ * For "app.jar", the archive is "app.jsa", and the launcher "app". An archive can only be used by the JVM which made it,
+ * with the same classpath, so the launcher runs the JVM of the compiler, and the archive is made again with each build.
+ * The JVM only archives classes from jars, so the classpath must not contain directories.
+ * The training run must exit by itself, and succeed, so a long-running program should be given training arguments which make it exit.
+ */
+class CdsPackager {
+	private final Path jar;
+	private final String mainClass;
+	private final List<Path> classpath;
+	private final Path java;
+
+	/**
+	 * @param jar The jar of the program
+	 * @param mainClass The internal name of the class whose main function is run
+	 * @param classpath The jars the program uses, other than its own, or null if there are none
+	 */
+	public CdsPackager(Path jar, String mainClass, List<Path> classpath) {
+		this.jar = jar.toAbsolutePath();
+		this.mainClass = mainClass.replace('/', '.');
+		this.classpath = classpath == null ? List.of() : classpath.stream().map(Path::toAbsolutePath).collect(Collectors.toList());
+		this.java = Path.of(System.getProperty("java.home"), "bin", "java");
+	}
+
+	/**
+	 * @return The directories of the classpath, which the JVM cannot archive classes from
+	 */
+	public List<Path> getDirectories() {
+		return classpath.stream().filter(Files::isDirectory).collect(Collectors.toList());
+	}
+
+	/**
+	 * Runs the program as a training run, making the archive, then writes the launcher.
+	 *
+	 * @param trainingArguments The arguments given to the program in the training run
+	 * @throws IOException If the training run failed, or did not make an archive, with a message including its output, or the launcher could not be written
+	 * @throws InterruptedException If interrupted while waiting for the training run
+	 */
+	public void createArchive(List<String> trainingArguments) throws IOException, InterruptedException {
+		Path archive = getArchive();
+		Files.deleteIfExists(archive);
+
+		List<String> command = new ArrayList<>();
+		command.add(java.toString());
+		command.add("-XX:ArchiveClassesAtExit=" + archive);
+		command.add("-cp");
+		command.add(getClasspath());
+		command.add(mainClass);
+		command.addAll(trainingArguments);
+
+		Process training = new ProcessBuilder(command).redirectErrorStream(true).start();
+		// The program is given no input, so a program reading it is not left waiting
+		training.getOutputStream().close();
+		String output = new String(training.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+		int code = training.waitFor();
+
+		if(code != 0) {
+			// A failed run may still make an archive, but only of the classes loaded before it failed
+			Files.deleteIfExists(archive);
+			throw new IOException("The training run of '%s' failed (exit code %d):%n%s".formatted(jar, code, output));
+		}
+		if(!Files.exists(archive)) {
+			throw new IOException("The training run of '%s' did not create '%s':%n%s".formatted(jar, archive, output));
+		}
+
+		writeLauncher();
+	}
+
+	private void writeLauncher() throws IOException {
+		Path launcher = getLauncher();
+		String script = """
+				#!/bin/sh
+				# Runs %s with the class data sharing archive made by its training run
+				DIR="$(cd "$(dirname "$0")" && pwd)"
+				exec %s -XX:SharedArchiveFile="$DIR"/%s -cp %s %s "$@"
+				""".formatted(
+						jar.getFileName(),
+						quote(java.toString()),
+						quote(getArchive().getFileName().toString()),
+						getLauncherClasspath(),
+						quote(mainClass)
+				);
+		Files.writeString(launcher, script);
+		launcher.toFile().setExecutable(true);
+	}
+
+	/**
+	 * @return The classpath of the training run, the jar first
+	 */
+	private String getClasspath() {
+		List<String> entries = new ArrayList<>();
+		entries.add(jar.toString());
+		for(Path entry : classpath) {
+			entries.add(entry.toString());
+		}
+		return String.join(File.pathSeparator, entries);
+	}
+
+	/**
+	 * @return The classpath of the training run, as a shell word of the launcher, with the jar found next to the launcher
+	 */
+	private String getLauncherClasspath() {
+		StringBuilder entries = new StringBuilder("\"$DIR\"/").append(quote(jar.getFileName().toString()));
+		for(Path entry : classpath) {
+			entries.append(quote(File.pathSeparator + entry));
+		}
+		return entries.toString();
+	}
+
+	/**
+	 * @return The archive, next to the jar
+	 */
+	public Path getArchive() {
+		return jar.resolveSibling(getBaseName() + ".jsa");
+	}
+
+	/**
+	 * @return The launcher, next to the jar
+	 */
+	public Path getLauncher() {
+		String baseName = getBaseName();
+		return jar.resolveSibling(baseName.equals(jar.getFileName().toString()) ? baseName + ".sh" : baseName);
+	}
+
+	private String getBaseName() {
+		String name = jar.getFileName().toString();
+		return name.endsWith(".jar") ? name.substring(0, name.length() - ".jar".length()) : name;
+	}
+
+	/**
+	 * @param value A word of a shell command
+	 * @return The word, quoted so the shell takes it literally
+	 */
+	private static String quote(String value) {
+		return "'" + value.replace("'", "'\\''") + "'";
+	}
+}
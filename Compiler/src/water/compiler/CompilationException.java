@@ -0,0 +1,24 @@
+package water.compiler;
+
+import java.util.List;
+
+/**
+ * Thrown when a stage of compilation fails, holding the errors for every file which failed.
+ */
+public class CompilationException extends Exception {
+	private static final long serialVersionUID = 1L;
+
+	private final List<Diagnostic> diagnostics;
+
+	public CompilationException(List<Diagnostic> diagnostics) {
+		super(diagnostics.isEmpty() ? null : diagnostics.get(0).formattedMessage());
+		this.diagnostics = diagnostics;
+	}
+
+	/**
+	 * @return The errors, in the order the failing files were given
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		return diagnostics;
+	}
+}
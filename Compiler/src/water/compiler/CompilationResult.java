@@ -0,0 +1,36 @@
+package water.compiler;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of compiling sources in memory with {@link WaterCompiler#compile(Map, CompilerOptions)}.
+ */
+public class CompilationResult {
+	private final Map<String, byte[]> classes;
+	private final List<Diagnostic> diagnostics;
+
+	public CompilationResult(Map<String, byte[]> classes, List<Diagnostic> diagnostics) {
+		this.classes = classes;
+		this.diagnostics = diagnostics;
+	}
+
+	/**
+	 * @return The byte[] representation of each generated class, keyed by fully qualified class name.
+	 * Empty if compilation failed.
+	 */
+	public Map<String, byte[]> getClasses() {
+		return classes;
+	}
+
+	/**
+	 * @return The errors produced whilst compiling
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		return diagnostics;
+	}
+
+	public boolean isSuccessful() {
+		return diagnostics.isEmpty();
+	}
+}
@@ -0,0 +1,199 @@
+package water.compiler;
+
+import water.compiler.symbol.SymbolIndexes;
+import water.compiler.symbol.SymbolTable;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * A long running compiler server, which accepts builds from a {@link DaemonClient} over a Unix domain socket.
+ * Keeping the compiler in one JVM means it stays warmed up by the JIT, and the classpath's symbols stay read, between builds.
+ *
+ * A request is the client's working directory followed by its command line arguments.
+ * The response is a sequence of frames, each a type byte followed by its data:
+ * STDOUT and STDERR frames carry a length prefixed block of output, and the EXIT frame carries the exit code, ending the response.
+ */
+class CompilerDaemon {
+	static final byte STDOUT = 1;
+	static final byte STDERR = 2;
+	static final byte EXIT = 3;
+
+	private final Path socket;
+	/** Loaded classpaths, kept between builds, keyed by the classpath entries */
+	private final Map<List<Path>, LoadedClasspath> classpaths = new HashMap<>();
+
+	private record LoadedClasspath(WaterClassLoader loader, SymbolTable symbols, SymbolIndexes indexes, Path indexDirectory, List<Long> fingerprint) {}
+
+	public CompilerDaemon(Path socket) {
+		this.socket = socket;
+	}
+
+	/**
+	 * Listens for builds until the process is stopped.
+	 * Builds are run one at a time, as each build already uses all worker threads.
+	 *
+	 * @throws IOException If the socket could not be opened
+	 */
+	public void serve() throws IOException {
+		// A socket file is left behind if a previous daemon was killed
+		Files.deleteIfExists(socket);
+
+		try(ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+			server.bind(UnixDomainSocketAddress.of(socket));
+			socket.toFile().deleteOnExit();
+
+			while(true) {
+				try(SocketChannel client = server.accept()) {
+					handle(client);
+				} catch (IOException e) {
+					// The client disconnected before the build finished - there is nobody to report to
+				}
+			}
+		}
+	}
+
+	private void handle(SocketChannel client) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+		DataOutputStream response = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)));
+
+		Path workingDirectory = Path.of(in.readUTF());
+		String[] args = new String[in.readInt()];
+		for(int i = 0; i < args.length; i++) {
+			args[i] = in.readUTF();
+		}
+
+		PrintStream out = new PrintStream(new FrameOutputStream(response, STDOUT), true);
+		PrintStream err = new PrintStream(new FrameOutputStream(response, STDERR), true);
+
+		Main main = new Main();
+		main.setOutput(out, err);
+		main.setWorkingDirectory(workingDirectory);
+		main.setDaemon(this);
+
+		int code;
+		try {
+			code = main.execute(args);
+		} catch (RuntimeException | Error e) {
+			// A crash in one build should not stop the daemon
+			e.printStackTrace(err);
+			code = 1;
+		}
+
+		// Symbols read during the build are indexed for future daemons, and for builds without one
+		for(LoadedClasspath loaded : classpaths.values()) {
+			if(loaded.indexes() != null) loaded.indexes().save();
+		}
+
+		out.flush();
+		err.flush();
+
+		synchronized(response) {
+			response.writeByte(EXIT);
+			response.writeInt(code);
+			response.flush();
+		}
+	}
+
+	/**
+	 * Gets the symbol table for a classpath, reusing the table from a previous build if none of the entries have changed.
+	 * @param classpath The classpath entries
+	 * @param indexDirectory The directory where the symbols of the JDK and jars are indexed, or null if they are not indexed
+	 * @return The symbol table for the classpath
+	 * @throws IOException If the classpath could not be read
+	 */
+	SymbolTable getClasspathSymbols(List<Path> classpath, Path indexDirectory) throws IOException {
+		List<Path> key = classpath == null ? List.of() : List.copyOf(classpath);
+		List<Long> fingerprint = fingerprint(key);
+
+		LoadedClasspath loaded = classpaths.get(key);
+		if(loaded != null && loaded.fingerprint().equals(fingerprint) && Objects.equals(loaded.indexDirectory(), indexDirectory)) {
+			return loaded.symbols();
+		}
+		if(loaded != null) loaded.loader().close();
+
+		WaterClassLoader loader = WaterClassLoader.loadClasspath(classpath);
+		SymbolIndexes indexes = indexDirectory == null ? null : new SymbolIndexes(indexDirectory);
+		SymbolTable symbols = new SymbolTable(loader, indexes);
+		classpaths.put(key, new LoadedClasspath(loader, symbols, indexes, indexDirectory, fingerprint));
+		return symbols;
+	}
+
+	/**
+	 * Summarises the state of each classpath entry, so that a changed jar or directory is loaded again.
+	 * @param classpath The classpath entries
+	 * @return The file count and latest modification time of each entry
+	 */
+	private List<Long> fingerprint(List<Path> classpath) throws IOException {
+		List<Long> fingerprint = new ArrayList<>();
+
+		for(Path entry : classpath) {
+			if(Files.isDirectory(entry)) {
+				try(Stream<Path> stream = Files.walk(entry)) {
+					List<Path> entryFiles = stream.filter(Files::isRegularFile).toList();
+					long lastModified = 0;
+					for(Path file : entryFiles) {
+						lastModified = Math.max(lastModified, Files.getLastModifiedTime(file).toMillis());
+					}
+					fingerprint.add((long) entryFiles.size());
+					fingerprint.add(lastModified);
+				}
+			}
+			else if(Files.exists(entry)) {
+				fingerprint.add(Files.size(entry));
+				fingerprint.add(Files.getLastModifiedTime(entry).toMillis());
+			}
+			else {
+				fingerprint.add(-1L);
+				fingerprint.add(-1L);
+			}
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Sends everything written to it to the client as frames of a single type.
+	 */
+	private static class FrameOutputStream extends OutputStream {
+		private final DataOutputStream response;
+		private final byte type;
+
+		public FrameOutputStream(DataOutputStream response, byte type) {
+			this.response = response;
+			this.type = type;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			synchronized(response) {
+				response.writeByte(type);
+				response.writeInt(len);
+				response.write(b, off, len);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			synchronized(response) {
+				response.flush();
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package water.compiler;
+
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Options for compiling sources in memory with {@link WaterCompiler#compile(java.util.Map, CompilerOptions)}.
+ */
+public class CompilerOptions {
+	private Properties optimizations = OptimizationReader.getDefaults();
+	private ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private Path symbolIndex = null;
+
+	/**
+	 * Creates options with the default optimisations, the system class loader, and a thread for each processor.
+	 */
+	public CompilerOptions() {}
+
+	public Properties getOptimizations() {
+		return optimizations;
+	}
+
+	/**
+	 * @param optimizations The optimisations to use, as read by {@link OptimizationReader}
+	 */
+	public void setOptimizations(Properties optimizations) {
+		this.optimizations = optimizations;
+	}
+
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	/**
+	 * @param classLoader The loader used to resolve classes referenced by the sources - this acts as the classpath
+	 */
+	public void setClassLoader(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @param threads The number of worker threads used to compile files
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public Path getSymbolIndex() {
+		return symbolIndex;
+	}
+
+	/**
+	 * @param symbolIndex The directory where the signatures of JDK and jar classes are indexed between compilations,
+	 *                    or null to read their class files every time
+	 */
+	public void setSymbolIndex(Path symbolIndex) {
+		this.symbolIndex = symbolIndex;
+	}
+}
@@ -0,0 +1,52 @@
+package water.compiler;
+
+import java.io.*;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A thin client which sends a build to a running {@link CompilerDaemon}.
+ *
+ * The first argument is the path of the daemon's socket, and the remaining arguments are passed to the compiler
+ * exactly as if they were given to {@link Main}. The build's output is printed, and the client exits with the build's exit code.
+ */
+public class DaemonClient {
+	private DaemonClient() {}
+
+	public static void main(String[] args) {
+		if(args.length == 0) {
+			System.err.println("Usage: <socket> [compiler arguments]");
+			System.exit(1);
+		}
+
+		try(SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(args[0]))) {
+			DataOutputStream request = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+			request.writeUTF(System.getProperty("user.dir"));
+			request.writeInt(args.length - 1);
+			for(int i = 1; i < args.length; i++) {
+				request.writeUTF(args[i]);
+			}
+			request.flush();
+
+			DataInputStream response = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+
+			while(true) {
+				byte type = response.readByte();
+
+				if(type == CompilerDaemon.EXIT) {
+					System.out.flush();
+					System.err.flush();
+					System.exit(response.readInt());
+				}
+
+				byte[] output = response.readNBytes(response.readInt());
+				(type == CompilerDaemon.STDERR ? System.err : System.out).write(output);
+			}
+		} catch (IOException e) {
+			System.err.printf("Failure communicating with compiler daemon at '%s': %s%n", args[0], e.getLocalizedMessage());
+			System.exit(2);
+		}
+	}
+}
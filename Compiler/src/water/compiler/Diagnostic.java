@@ -0,0 +1,27 @@
+package water.compiler;
+
+/**
+ * An error reported by the compiler for a source file.
+ *
+ * @param kind The stage of compilation which produced the error
+ * @param source The name of the source file
+ * @param line The line of the error
+ * @param column The column of the error
+ * @param token The text of the token where the error occurred
+ * @param message The description of the error
+ * @param formattedMessage The error as printed by the command line compiler, including its location
+ */
+public record Diagnostic(Kind kind, String source, int line, int column, String token, String message, String formattedMessage) {
+
+	public enum Kind {
+		/** The source could not be parsed */
+		SYNTAX,
+		/** The source was parsed, but is not a valid program, such as an unresolved variable */
+		SEMANTIC
+	}
+
+	@Override
+	public String toString() {
+		return formattedMessage;
+	}
+}
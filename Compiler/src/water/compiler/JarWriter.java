@@ -0,0 +1,109 @@
+package water.compiler;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Writes generated classes to a single jar, rather than a file for each.
+ *
+ * Jars are reproducible: the manifest is written first, then the index (if there is one), then each class in order of its name,
+ * and every entry has the same time, so the same classes always give the same jar, however they were compiled.
+ */
+class JarWriter {
+	/** The time of every entry - the earliest a jar can hold - so that a jar does not depend on when it was built */
+	private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
+	private static final String INDEX_NAME = "META-INF/INDEX.LIST";
+
+	private final Path jar;
+	private final String mainClass;
+	private final boolean index;
+
+	/**
+	 * @param jar The path of the jar
+	 * @param mainClass The internal name of the class run by 'java -jar', or null if the jar has no main class
+	 * @param index If a "META-INF/INDEX.LIST" of the jar's packages is written, for class loaders which use it to find classes
+	 */
+	public JarWriter(Path jar, String mainClass, boolean index) {
+		this.jar = jar;
+		this.mainClass = mainClass;
+		this.index = index;
+	}
+
+	/**
+	 * Writes the jar, replacing any existing file.
+	 * @param classes The byte[] representation of each class, keyed by internal name
+	 * @throws IOException If the jar could not be written
+	 */
+	public void write(Map<String, byte[]> classes) throws IOException {
+		SortedMap<String, byte[]> entries = new TreeMap<>();
+		for(Map.Entry<String, byte[]> klass : classes.entrySet()) {
+			entries.put(klass.getKey() + ".class", klass.getValue());
+		}
+
+		Path parent = jar.toAbsolutePath().getParent();
+		if(parent != null) Files.createDirectories(parent);
+
+		try(JarOutputStream out = new JarOutputStream(new BufferedOutputStream(Files.newOutputStream(jar)))) {
+			// Not given to the JarOutputStream constructor, as that would give the manifest the current time
+			putEntry(out, JarFile.MANIFEST_NAME);
+			createManifest().write(out);
+
+			if(index) {
+				putEntry(out, INDEX_NAME);
+				out.write(createIndex(entries).getBytes(StandardCharsets.UTF_8));
+			}
+
+			for(Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				putEntry(out, entry.getKey());
+				out.write(entry.getValue());
+			}
+		}
+	}
+
+	private static void putEntry(JarOutputStream out, String name) throws IOException {
+		JarEntry entry = new JarEntry(name);
+		entry.setTimeLocal(ENTRY_TIME);
+		out.putNextEntry(entry);
+	}
+
+	private Manifest createManifest() {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.put(new Attributes.Name("Created-By"), "Water Compiler (JDK) " + VersionInformation.getVersionFormatted());
+		if(mainClass != null) attributes.put(Attributes.Name.MAIN_CLASS, mainClass.replace('/', '.'));
+		return manifest;
+	}
+
+	/**
+	 * Lists the packages of the jar in the format of {@link JarFile}'s index: the jar's name, followed by each directory
+	 * which holds a class, or the name of the class for those in no package.
+	 */
+	private String createIndex(SortedMap<String, byte[]> entries) {
+		StringBuilder index = new StringBuilder("JarIndex-Version: 1.0\n\n");
+		index.append(jar.getFileName()).append('\n');
+
+		TreeSet<String> packages = new TreeSet<>();
+		for(String name : entries.keySet()) {
+			int separator = name.lastIndexOf('/');
+			packages.add(separator == -1 ? name : name.substring(0, separator));
+		}
+		for(String packageName : packages) {
+			index.append(packageName).append('\n');
+		}
+		return index.append('\n').toString();
+	}
+}
@@ -4,22 +4,33 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
 import com.beust.jcommander.Parameters;
-import org.objectweb.asm.ClassWriter;
-import water.compiler.compiler.Context;
-import water.compiler.compiler.Scope;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
-import water.compiler.lexer.Lexer;
-import water.compiler.lexer.Token;
-import water.compiler.parser.ASTPrettyPrinter;
-import water.compiler.parser.Node;
-import water.compiler.parser.Parser;
+import water.compiler.incremental.BuildCache;
+import water.compiler.incremental.DependencyCollector;
+import water.compiler.incremental.SignatureHasher;
 import water.compiler.parser.UnexpectedTokenException;
-
+import water.compiler.symbol.ClassSymbol;
+import water.compiler.symbol.SymbolIndexes;
+import water.compiler.symbol.SymbolTable;
+import water.compiler.timing.BuildTimings;
+import water.compiler.util.PathConverter;
+import water.compiler.util.PathSplitter;
+
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +40,11 @@ import java.util.stream.Collectors;
  * compiling - build a full class, including implementations, to be outputted.
  *
  * Preprocessing allows for full Class references to be built.
+ * Classes are written to the output directory, or given '--jar', to a single jar by a {@link JarWriter},
+ * which '--cds' then packages with a class data sharing archive, see {@link CdsPackager}.
+ *
+ * Given 'run' as the first argument, the classes are instead kept in memory, and the main function of the first file is run
+ * in this JVM, with any arguments after '--' passed to it. Given 'repl', an interactive session is started instead, see {@link Repl}.
  */
 @Parameters(separators = " |=")
 public class Main {
@@ -45,6 +61,18 @@ public class Main {
 	@Parameter(names = { "-d", "--outputDir" }, description = "The directory where generated files are placed")
 	private String outputDirectory = null;
 
+	@Parameter(names = { "--jar" }, description = "Writes every generated class to this jar, rather than to the output directory, with the first file's main function as its main class")
+	private String jarFile = null;
+
+	@Parameter(names = { "--jar-index" }, description = "Adds a META-INF/INDEX.LIST of the packages of the jar given by '--jar'")
+	private boolean jarIndex = false;
+
+	@Parameter(names = { "--cds" }, description = "Once the jar given by '--jar' is written, runs the program once to make a class data sharing archive next to it, and a launcher script which runs the jar with the archive, for faster startup")
+	private boolean cds = false;
+
+	@Parameter(names = { "--cds-training-arg" }, description = "An argument given to the program in the training run of '--cds', which may be repeated")
+	private List<String> cdsTrainingArguments = new ArrayList<>();
+
 	@Parameter(names = { "-o", "--optimize" }, description = "Set the optimization configuration path")
 	private String optimizeConfig = null;
 
@@ -55,39 +83,131 @@ public class Main {
 			splitter = PathSplitter.class)
 	private List<Path> classpath = null;
 
-	@Parameter(description = "Files to be compiled", required = true)
+	@Parameter(names = { "-j", "--threads" }, description = "The number of worker threads used to compile files")
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	@Parameter(names = { "-i", "--incremental" }, description = "Only recompile files which have changed, or which depend on classes whose signature has changed")
+	private boolean incremental = false;
+
+	@Parameter(names = { "--cache" }, description = "The file used to store information between incremental builds")
+	private String cacheFile = null;
+
+	@Parameter(names = { "--symbol-index" }, description = "Indexes the signatures of JDK and jar classes in this directory, to be read by later builds rather than the class files - by default, nothing is indexed")
+	private String symbolIndexDirectory = null;
+
+	@Parameter(names = { "--timings" }, description = "Prints the time spent in each phase of compilation, the slowest files, and counts of symbol resolutions")
+	private boolean timings = false;
+
+	@Parameter(names = { "--bounded-memory" }, description = "Keeps only class signatures in memory between phases, lexing and parsing each file again when it is needed, so that memory does not grow with the size of every file's AST")
+	private boolean boundedMemory = false;
+
+	@Parameter(names = { "--daemon" }, description = "Runs a compiler server on the given Unix domain socket, which is sent builds by the DaemonClient")
+	private String daemonSocket = null;
+
+	@Parameter(description = "Files to be compiled")
 	private List<String> files = new ArrayList<>();
 
 	private JCommander jCommander;
 
+	/** Where output is written - these differ from System.out and System.err when running a build for the compiler daemon */
+	private PrintStream out = System.out;
+	private PrintStream err = System.err;
+
+	/** The directory which relative paths are resolved against, or null to use the current directory */
+	private Path workingDirectory = null;
+
+	/** The daemon running this build, if there is one */
+	private CompilerDaemon daemon = null;
+
+	/** If the program is run once compiled, rather than its classes being written */
+	private boolean runProgram = false;
+	private String[] programArguments = new String[0];
+	/** If an interactive session is started, rather than files being compiled */
+	private boolean runRepl = false;
+
+	/** Builds are run through {@link #main(String[])}, or by the {@link CompilerDaemon} */
+	Main() {}
+
 	public static void main(String[] args) {
-		Main main = new Main();
+		int code = new Main().execute(args);
+		// Worker threads are daemons, so a run program's own threads are left to finish, as they would be under 'java'
+		if(code != 0) System.exit(code);
+	}
 
-		main.setJCommander(JCommander.newBuilder().addObject(main).build());
+	/**
+	 * Parses the command line arguments and runs the compiler.
+	 * @param args The command line arguments
+	 * @return The exit code of the compiler
+	 */
+	int execute(String[] args) {
+		setJCommander(JCommander.newBuilder().addObject(this).build());
 
-		main.getJCommander().setProgramName("water");
+		getJCommander().setProgramName("water");
 
 		try {
-			main.getJCommander().parse(args);
+			try {
+				getJCommander().parse(parseRunCommand(args));
+
+				if(files.isEmpty() && daemonSocket == null && !runRepl && !help && !version) {
+					throw new ParameterException("Main parameters are required (\"Files to be compiled\")");
+				}
+				testJarParameters();
+			}
+			catch (ParameterException e) {
+				err.println("Invalid Parameters: " + e.getLocalizedMessage());
+				printUsage();
+				return 1;
+			}
+			run();
+			return 0;
+		} catch (ExitException e) {
+			return e.getCode();
 		}
-		catch (ParameterException e) {
-			System.err.println("Invalid Parameters: " + e.getLocalizedMessage());
-			e.usage();
-			System.exit(1);
+	}
+
+	/**
+	 * Removes the 'run' or 'repl' command from the arguments, and the program's arguments following '--'.
+	 * @param args The command line arguments
+	 * @return The arguments of the compiler
+	 */
+	private String[] parseRunCommand(String[] args) {
+		if(args.length > 0 && "repl".equals(args[0])) {
+			runRepl = true;
+			return Arrays.copyOfRange(args, 1, args.length);
 		}
-		main.run();
+		if(args.length == 0 || !"run".equals(args[0])) return args;
+		runProgram = true;
+
+		int separator = Arrays.asList(args).indexOf("--");
+		if(separator == -1) return Arrays.copyOfRange(args, 1, args.length);
+
+		programArguments = Arrays.copyOfRange(args, separator + 1, args.length);
+		return Arrays.copyOfRange(args, 1, separator);
 	}
 
 	private void run() {
 		testInformationalParameters();
 
+		if(daemonSocket != null) {
+			runDaemon();
+			return;
+		}
+
+		if((runProgram || runRepl) && daemon != null) {
+			error(1, "Cannot run a program from within a daemon build");
+		}
+
+		if(workingDirectory != null) resolveAgainstWorkingDirectory();
+
 		Properties optimizations = getOptimizationConfiguration();
 
 		List<Path> paths = files.stream().map(Path::of).collect(Collectors.toList());
 
-		WaterClassLoader classPathLoader = null;
+		SymbolIndexes symbolIndexes = daemon == null && symbolIndexDirectory != null ? new SymbolIndexes(Path.of(symbolIndexDirectory)) : null;
+
+		SymbolTable classpathSymbols = null;
 		try {
-			classPathLoader = WaterClassLoader.loadClasspath(classpath);
+			classpathSymbols = daemon == null ? new SymbolTable(WaterClassLoader.loadClasspath(classpath), symbolIndexes) : daemon.getClasspathSymbols(classpath, symbolIndexDirectory == null ? null : Path.of(symbolIndexDirectory));
 		} catch (IOException e) {
 			error(2, "Failed whilst reading classpath: %s\n%s".formatted(
 					classpath.stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator)),
@@ -95,121 +215,480 @@ public class Main {
 			));
 		}
 
-		WaterClassLoader buildClassLoader = new WaterClassLoader(classPathLoader);
+		ExecutorService executor = WaterCompiler.newWorkerPool(threads);
+		BuildTimings buildTimings = new BuildTimings(timings);
 
-		ArrayList<FileContext> fileContexts = new ArrayList<>();
+		Class<?> mainClass = null;
+		try {
+			if(runRepl) runRepl(optimizations, classpathSymbols, executor, buildTimings);
+			else if(runProgram) mainClass = compileProgram(paths, optimizations, classpathSymbols, executor, buildTimings);
+			else compile(paths, optimizations, classpathSymbols, executor, buildTimings);
+		} finally {
+			executor.shutdownNow();
+			// The daemon keeps its indexes in memory, and saves them itself
+			if(symbolIndexes != null) symbolIndexes.save();
+
+			buildTimings.finish(paths.size());
+			if(buildTimings.isRecording()) buildTimings.print(out);
+		}
 
-		// Lex, parse, and build classes for all files
-		for(Path path : paths) {
-			try {
-				String source = Files.readString(path);
+		if(mainClass != null) runMain(mainClass);
+	}
 
-				Lexer lexer = new Lexer();
-				List<Token> lexResult = lexer.lex(source);
+	/**
+	 * Compiles all files, or only those out of date in an incremental build.
+	 *
+	 * @param paths The source files
+	 * @param optimizations The optimisations to use
+	 * @param classpathSymbols The symbol table of the classpath
+	 * @param executor The worker pool
+	 * @param buildTimings Measures the phases of each file
+	 */
+	private void compile(List<Path> paths, Properties optimizations, SymbolTable classpathSymbols, ExecutorService executor, BuildTimings buildTimings) {
+		WaterCompiler compiler = new WaterCompiler(optimizations, executor, prettyPrint ? out : null, buildTimings, boundedMemory);
+
+		Map<Path, String> sources = readSources(paths, executor);
+
+		BuildCache cache = null;
+		Map<Path, String> contentHashes = new HashMap<>();
+		Set<Path> outOfDate = new HashSet<>(paths);
+		Set<String> removedClasses = new HashSet<>();
+
+		if(incremental) {
+			cache = BuildCache.read(getCachePath(), getBuildConfiguration(optimizations));
+
+			for(Path path : paths) {
+				contentHashes.put(path, SignatureHasher.hashContent(sources.get(path).getBytes(StandardCharsets.UTF_8)));
+				if(cache.isUpToDate(path, contentHashes.get(path))) outOfDate.remove(path);
+			}
 
-				Parser parser = new Parser();
-				Node program = parser.parse(lexResult);
-				if(prettyPrint) {
-					System.out.printf("==== %s ====%n", path);
-					System.out.println(ASTPrettyPrinter.prettyPrint(program));
-				}
+			removedClasses = cache.retainFiles(paths);
+		}
 
-				Context context = new Context();
-				context.setSource(path.getFileName().toString());
-				context.setLoader(buildClassLoader);
-				Scope redefinitionResolver = new Scope(context);
-				context.setScope(redefinitionResolver);
+		Map<Path, Map<String, byte[]>> templates = new HashMap<>();
+		Map<Path, Map<String, byte[]>> signatures = new HashMap<>();
+		List<FileContext> fileContexts;
 
-				program.buildClasses(context);
+		while(true) {
+			List<Path> compiling = paths.stream().filter(outOfDate::contains).collect(Collectors.toList());
+			List<Path> upToDate = paths.stream().filter(p -> !outOfDate.contains(p)).collect(Collectors.toList());
 
-				Map<String, Class<?>> classMap = new HashMap<>();
+			// Classes of up-to-date files are taken from the cache, and only read if they are used
+			SymbolTable buildSymbols = new SymbolTable(classpathSymbols, cache == null ? Map.of() : cache.getTemplates(upToDate), buildTimings);
+			SymbolTable preprocessSymbols = new SymbolTable(classpathSymbols, cache == null ? Map.of() : cache.getSignatures(upToDate), buildTimings);
 
-				for(Map.Entry<String, ClassWriter> classes : context.getClassWriterMap().entrySet()) {
-					byte[] klassRep = classes.getValue().toByteArray();
-					Class<?> klass = buildClassLoader.define(classes.getKey().replace('/', '.'), klassRep);
+			try {
+				fileContexts = compiler.buildFiles(compiling, sources, buildSymbols, templates);
+				compiler.preprocessFiles(fileContexts, preprocessSymbols, signatures);
+			} catch (CompilationException e) {
+				error(e);
+				return;
+			} catch (IOException e) {
+				error(2, e.getMessage());
+				return;
+			}
 
-					classMap.put(classes.getKey(), klass);
-				}
+			if(cache == null) break;
 
-				fileContexts.add(new FileContext(program, context, classMap, path, optimizations));
-			} catch (IOException e) {
-				error(2, "Failure reading file '%s': %s", path.toString(), e.getClass().getSimpleName().replace("Exception", ""));
-			} catch (UnexpectedTokenException e) {
-				error(-1, e.getErrorMessage(path.toString()));
-			} catch (SemanticException e) {
-				error(-2, e.getErrorMessage(path.toString()));
+			// Files must also be recompiled if the signature of any class they reference, or any class it inherits from, has changed
+			Set<String> changedClasses = new HashSet<>(removedClasses);
+			for(FileContext fc : fileContexts) {
+				changedClasses.addAll(cache.getChangedClasses(fc.getPath(), signatures.get(fc.getPath())));
 			}
+
+			List<Path> dependents = cache.getDependentFiles(upToDate, cache.addSubclasses(changedClasses, signatures));
+			if(dependents.isEmpty()) break;
+
+			// The previously read classes of the dependents are now stale, so the affected files are compiled again from the start
+			outOfDate.addAll(dependents);
 		}
 
-		// preprocess all files
-		WaterClassLoader preprocessLoader = new WaterClassLoader(classPathLoader);
-		for(FileContext fc : fileContexts) {
-			try {
-				fc.getAst().preprocess(fc.getContext());
+		// Released files are read again as they are compiled, so their sources are not held for the rest of the build
+		sources = null;
+
+		// Collected as each class is written, so that the classes themselves are not held until every file is compiled
+		boolean collectDependencies = cache != null;
+		Map<Path, Set<String>> dependencies = new ConcurrentHashMap<>();
+		Map<Path, Map<String, Path>> classFiles = new ConcurrentHashMap<>();
 
-				Map<String, Class<?>> classMap = new HashMap<>();
+		// A jar is written in order once every class is generated, so its classes are held until then
+		Map<String, byte[]> jarClasses = new ConcurrentHashMap<>();
+		String[] mainClass = new String[1];
 
-				for(Map.Entry<String, ClassWriter> classes : fc.getContext().getClassWriterMap().entrySet()) {
-					byte[] klassRep = classes.getValue().toByteArray();
-					Class<?> klass = preprocessLoader.define(classes.getKey().replace('/', '.'), klassRep);
+		try {
+			compiler.compileFiles(fileContexts, (fc, baseClassName, klassRep) -> {
+				if(jarFile == null) {
+					writeClass(fc, baseClassName, klassRep);
+				}
+				else {
+					jarClasses.put(baseClassName, klassRep);
+					if(isMainClass(paths.get(0), fc, baseClassName, klassRep)) mainClass[0] = baseClassName;
+				}
 
-					classMap.put(classes.getKey(), klass);
+				if(collectDependencies) {
+					dependencies.computeIfAbsent(fc.getPath(), p -> ConcurrentHashMap.newKeySet()).addAll(DependencyCollector.collect(klassRep));
+					classFiles.computeIfAbsent(fc.getPath(), p -> new ConcurrentHashMap<>()).put(baseClassName, getClassFile(fc, baseClassName));
 				}
-				fc.setClassMap(classMap);
-				fc.getContext().setLoader(preprocessLoader);
-			} catch (SemanticException e) {
-				error(-2, e.getErrorMessage(fc.getPath().toString()));
+			});
+		} catch (CompilationException e) {
+			error(e);
+		} catch (IOException e) {
+			error(3, e.getMessage());
+		}
+
+		if(jarFile != null) {
+			try {
+				new JarWriter(Path.of(jarFile), mainClass[0], jarIndex).write(jarClasses);
+			} catch (IOException e) {
+				error(3, "Failure writing file '%s': %s", jarFile, e.getClass().getSimpleName().replace("Exception", ""));
 			}
+
+			if(cds) createCdsArchive(mainClass[0]);
 		}
 
-		// Compile for all classes (no re-parse)
-		for(FileContext fc : fileContexts) {
-			Scope scope = new Scope(fc);
-			fc.getContext().setScope(scope);
+		if(cache != null && (!fileContexts.isEmpty() || !removedClasses.isEmpty())) {
+			for(FileContext fc : fileContexts) {
+				Path path = fc.getPath();
+				cache.update(path, contentHashes.get(path), templates.get(path), signatures.get(path),
+						classFiles.getOrDefault(path, Map.of()), dependencies.getOrDefault(path, Set.of()));
+			}
 
 			try {
-				fc.getAst().visit(fc);
-			} catch (SemanticException e) {
-				error(-2, e.getErrorMessage(fc.getPath().toString()));
+				cache.deleteStaleClassFiles();
+			} catch (IOException e) {
+				error(3, e.getMessage());
 			}
 
-			String outputDir = outputDirectory == null ? fc.getPath().getParent().toString() : outputDirectory;
-			String packageDir = fc.getContext().getPackageName().replace('/', File.separatorChar);
+			try {
+				cache.write(getCachePath());
+			} catch (IOException e) {
+				error(3, "Failure writing file '%s': %s", getCachePath().toString(), e.getClass().getSimpleName().replace("Exception", ""));
+			}
+		}
+	}
 
-			for(Map.Entry<String, Class<?>> classEntry : fc.getClassMap().entrySet()) {
-				String baseClassName = classEntry.getKey();
-				byte[] klassRep = fc.getContext().getClassWriterMap().get(baseClassName).toByteArray();
+	/**
+	 * Compiles all files in memory, defining their classes in a loader over the classpath, for the program to be run.
+	 * Nothing is written, so the output directory and build cache are not used.
+	 *
+	 * @param paths The source files, the first of which contains the main function
+	 * @param optimizations The optimisations to use
+	 * @param classpathSymbols The symbol table of the classpath
+	 * @param executor The worker pool
+	 * @param buildTimings Measures the phases of each file
+	 * @return The class of the first file's functions, which is not yet initialized
+	 */
+	private Class<?> compileProgram(List<Path> paths, Properties optimizations, SymbolTable classpathSymbols, ExecutorService executor, BuildTimings buildTimings) {
+		WaterCompiler compiler = new WaterCompiler(optimizations, executor, prettyPrint ? out : null, buildTimings, boundedMemory);
+
+		Path mainFile = paths.get(0);
+
+		Map<String, byte[]> classes = new ConcurrentHashMap<>();
+		String[] mainClass = new String[1];
 
-				String className = baseClassName + ".class";
+		try {
+			// The sources are only held until the files are built - released files are read again as they are needed
+			List<FileContext> fileContexts = compiler.buildFiles(paths, readSources(paths, executor), new SymbolTable(classpathSymbols, Map.of(), buildTimings), new HashMap<>());
+			compiler.preprocessFiles(fileContexts, new SymbolTable(classpathSymbols, Map.of(), buildTimings), new HashMap<>());
 
-				if(className.contains("/")) {
-					className = className.substring(className.lastIndexOf('/'));
-				}
+			compiler.compileFiles(fileContexts, (fc, baseClassName, klassRep) -> {
+				classes.put(baseClassName, klassRep);
 
-				Path classFile = Path.of(outputDir, packageDir, className);
-				try {
-					Files.createDirectories(classFile.getParent());
-					Files.write(classFile, klassRep);
-				} catch (IOException e) {
-					error(3, "Failure writing file '%s': %s", classFile.toString(), e.getClass().getSimpleName().replace("Exception", ""));
-				}
+				if(isFileClass(mainFile, fc, baseClassName)) mainClass[0] = baseClassName;
+			});
+		} catch (CompilationException e) {
+			error(e);
+		} catch (IOException e) {
+			// Classes are only collected in memory, so only a released file being read again can fail
+			error(2, e.getMessage());
+		}
+
+		if(mainClass[0] == null) {
+			error(1, "No main function in '%s'", mainFile.toString());
+		}
+
+		WaterClassLoader loader = new WaterClassLoader(classpathSymbols.getClassLoader(), classes);
+		try {
+			return Class.forName(mainClass[0].replace('/', '.'), false, loader);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Makes the class data sharing archive and launcher of the written jar, with a training run of the program.
+	 * @param mainClass The internal name of the class whose main function is run, or null if the first file has no main function
+	 */
+	private void createCdsArchive(String mainClass) {
+		if(mainClass == null) {
+			error(1, "No main function in '%s'", files.get(0));
+		}
+
+		CdsPackager packager = new CdsPackager(Path.of(jarFile), mainClass, classpath);
+		if(!packager.getDirectories().isEmpty()) {
+			error(1, "Class data sharing archives can only be made from jars, but the classpath contains the directory '%s'", packager.getDirectories().get(0).toString());
+		}
+
+		try {
+			packager.createArchive(cdsTrainingArguments);
+		} catch (IOException e) {
+			error(3, e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			error(3, "Interrupted during the training run of '%s'", jarFile);
+		}
+	}
+
+	/**
+	 * @param file A source file
+	 * @param fc The context of the file which generated a class
+	 * @param baseClassName The internal name of the class
+	 * @return If the class holds the top level functions of the given file
+	 */
+	private static boolean isFileClass(Path file, FileContext fc, String baseClassName) {
+		String fileName = file.getFileName().toString();
+		String fileClassName = fileName.substring(0, fileName.indexOf('.') == -1 ? fileName.length() : fileName.indexOf('.')) + "Wtr";
+		return fc.getPath().equals(file) && (baseClassName.equals(fileClassName) || baseClassName.endsWith("/" + fileClassName));
+	}
+
+	/**
+	 * @param file The source file whose main function is run
+	 * @param fc The context of the file which generated a class
+	 * @param baseClassName The internal name of the class
+	 * @param klassRep The byte[] representation of the class
+	 * @return If the class holds the top level functions of the given file, including a main function the 'java' launcher can run
+	 */
+	private static boolean isMainClass(Path file, FileContext fc, String baseClassName, byte[] klassRep) {
+		if(!isFileClass(file, fc, baseClassName)) return false;
+
+		// The main function taking no arguments is only given a 'java' entry point as the class is generated
+		return ClassSymbol.read(klassRep).getDeclaredMethods().stream()
+				.anyMatch(m -> m.isStatic() && m.isPublic() && m.name().equals("main") && m.descriptor().equals("([Ljava/lang/String;)V"));
+	}
+
+	/**
+	 * Runs an interactive session on the standard input, until it ends.
+	 *
+	 * @param optimizations The optimisations to use
+	 * @param classpathSymbols The symbol table of the classpath
+	 * @param executor The worker pool
+	 * @param buildTimings Measures the phases of each input
+	 */
+	private void runRepl(Properties optimizations, SymbolTable classpathSymbols, ExecutorService executor, BuildTimings buildTimings) {
+		out.println("Water (JDK) %s - enter ':quit' to exit".formatted(VersionInformation.getVersionFormatted()));
+
+		try {
+			new Repl(optimizations, classpathSymbols, executor, buildTimings, out, err).run(new BufferedReader(new InputStreamReader(System.in)));
+		} catch (IOException e) {
+			error(2, "Failure reading input: %s", e.getLocalizedMessage());
+		}
+	}
+
+	/**
+	 * Runs the main function of a compiled program, reporting an uncaught exception as the 'java' launcher does.
+	 * @param mainClass The class containing the main function
+	 */
+	private void runMain(Class<?> mainClass) {
+		Method main;
+		try {
+			main = mainClass.getMethod("main", String[].class);
+		} catch (NoSuchMethodException e) {
+			error(1, "No main function in '%s'", files.get(0));
+			return;
+		}
+
+		Thread thread = Thread.currentThread();
+		ClassLoader previousLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(mainClass.getClassLoader());
+
+		try {
+			main.invoke(null, (Object) programArguments);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			removeCompilerFrames(cause);
+
+			err.print("Exception in thread \"" + thread.getName() + "\" ");
+			cause.printStackTrace(err);
+			throw new ExitException(1);
+		} catch (IllegalAccessException e) {
+			error(1, "No main function in '%s'", files.get(0));
+		} finally {
+			thread.setContextClassLoader(previousLoader);
+		}
+	}
+
+	/**
+	 * Removes the frames of an exception thrown by a program which was run by the compiler, from where the compiler
+	 * reflectively called or initialized the program's class inwards, so that only the program's own frames are printed.
+	 * @param e The exception thrown by the program
+	 */
+	static void removeCompilerFrames(Throwable e) {
+		StackTraceElement[] trace = e.getStackTrace();
+		int programFrames = 0;
+		while(programFrames < trace.length && !isReflectionFrame(trace[programFrames])) programFrames++;
+		e.setStackTrace(Arrays.copyOf(trace, programFrames));
+	}
+
+	private static boolean isReflectionFrame(StackTraceElement frame) {
+		String className = frame.getClassName();
+		return className.startsWith("jdk.internal.reflect.") || className.equals(Method.class.getName()) || className.equals(Class.class.getName());
+	}
+
+	/**
+	 * Reads all source files on the worker pool.
+	 *
+	 * @param paths The source files
+	 * @param executor The worker pool
+	 * @return The content of each file
+	 */
+	private Map<Path, String> readSources(List<Path> paths, ExecutorService executor) {
+		List<Future<String>> readTasks = new ArrayList<>();
+		for(Path path : paths) {
+			readTasks.add(executor.submit(() -> Files.readString(path)));
+		}
+
+		Map<Path, String> sources = new HashMap<>();
+
+		for(int i = 0; i < paths.size(); i++) {
+			Path path = paths.get(i);
+			try {
+				sources.put(path, WaterCompiler.await(readTasks.get(i)));
+			} catch (IOException e) {
+				error(2, "Failure reading file '%s': %s", path.toString(), e.getClass().getSimpleName().replace("Exception", ""));
+			} catch (UnexpectedTokenException | SemanticException e) {
+				throw new IllegalStateException(e);
 			}
 		}
+		return sources;
+	}
+
+	/**
+	 * Writes a generated class to the output directory. This is called concurrently for different files.
+	 *
+	 * @param fc The context of the file which generated the class
+	 * @param baseClassName The internal name of the class
+	 * @param klassRep The byte[] representation of the class
+	 * @throws IOException If the class could not be written, with a message describing the failure
+	 */
+	private void writeClass(FileContext fc, String baseClassName, byte[] klassRep) throws IOException {
+		Path classFile = getClassFile(fc, baseClassName);
+		try {
+			Files.createDirectories(classFile.getParent());
+			Files.write(classFile, klassRep);
+		} catch (IOException e) {
+			throw new IOException("Failure writing file '%s': %s".formatted(classFile.toString(), e.getClass().getSimpleName().replace("Exception", "")), e);
+		}
+	}
+
+	/**
+	 * Resolves the path which a class generated by a file is written to.
+	 *
+	 * @param fc The context of the file
+	 * @param baseClassName The internal name of the class
+	 * @return The path of the class file
+	 */
+	private Path getClassFile(FileContext fc, String baseClassName) {
+		String outputDir = outputDirectory == null ? fc.getPath().getParent().toString() : outputDirectory;
+		String packageDir = fc.getContext().getPackageName().replace('/', File.separatorChar);
+
+		String className = baseClassName + ".class";
+
+		if(className.contains("/")) {
+			className = className.substring(className.lastIndexOf('/'));
+		}
+
+		return Path.of(outputDir, packageDir, className);
+	}
+
+	/**
+	 * Describes every option which affects the generated classes, so that a build cache is discarded if any change.
+	 *
+	 * @param optimizations The optimisations in use
+	 * @return The description of the build configuration
+	 */
+	private String getBuildConfiguration(Properties optimizations) {
+		return String.join("\n",
+				VersionInformation.getVersionFormatted(),
+				String.valueOf(outputDirectory),
+				new TreeMap<>(optimizations).toString(),
+				classpath == null ? "" : classpath.stream().map(p -> p.toAbsolutePath().toString()).collect(Collectors.joining(File.pathSeparator))
+		);
+	}
+
+	private Path getCachePath() {
+		if(cacheFile != null) return Path.of(cacheFile);
+		return Path.of(outputDirectory == null ? "" : outputDirectory, ".watercache");
+	}
+
+	/**
+	 * Reports the first error of a failed stage of compilation.
+	 * @param e The failure
+	 */
+	private void error(CompilationException e) {
+		Diagnostic diagnostic = e.getDiagnostics().get(0);
+		error(diagnostic.kind() == Diagnostic.Kind.SYNTAX ? -1 : -2, diagnostic.formattedMessage());
 	}
 
 	private void error(int code, String format, Object... args) {
-		System.err.printf(format + "\n", args);
-		System.exit(code);
+		err.printf(format + "\n", args);
+		throw new ExitException(code);
+	}
+
+	private void printUsage() {
+		StringBuilder usage = new StringBuilder();
+		jCommander.getUsageFormatter().usage(usage);
+		out.print(usage);
+		out.println("To compile and run a program in memory: water run [options] <files> [-- <program arguments>]");
+		out.println("To start an interactive session: water repl [options]");
+	}
+
+	private void runDaemon() {
+		if(daemon != null) {
+			error(1, "Cannot start a compiler daemon from within a daemon build");
+		}
+
+		try {
+			new CompilerDaemon(Path.of(daemonSocket)).serve();
+		} catch (IOException e) {
+			error(2, "Failure running compiler daemon on '%s': %s", daemonSocket, e.getLocalizedMessage());
+		}
+	}
+
+	/**
+	 * Makes every path given as an argument absolute, resolving relative paths against the working directory.
+	 * The daemon runs builds for clients in other directories, so cannot rely on the current directory.
+	 */
+	private void resolveAgainstWorkingDirectory() {
+		files = files.stream().map(f -> workingDirectory.resolve(f).toString()).collect(Collectors.toList());
+		if(outputDirectory != null) outputDirectory = workingDirectory.resolve(outputDirectory).toString();
+		if(jarFile != null) jarFile = workingDirectory.resolve(jarFile).toString();
+		if(optimizeConfig != null) optimizeConfig = workingDirectory.resolve(optimizeConfig).toString();
+		if(cacheFile != null) cacheFile = workingDirectory.resolve(cacheFile).toString();
+		if(symbolIndexDirectory != null) symbolIndexDirectory = workingDirectory.resolve(symbolIndexDirectory).toString();
+		if(classpath != null) classpath = classpath.stream().map(workingDirectory::resolve).collect(Collectors.toList());
+	}
+
+	/**
+	 * A jar is written in one go, from every class of the build, so cannot be combined with options which write classes otherwise.
+	 */
+	private void testJarParameters() {
+		if(jarIndex && jarFile == null) throw new ParameterException("'--jar-index' requires '--jar'");
+		if((cds || !cdsTrainingArguments.isEmpty()) && jarFile == null) throw new ParameterException("'--cds' requires '--jar'");
+		if(jarFile == null) return;
+
+		if(outputDirectory != null) throw new ParameterException("'--jar' cannot be used with '--outputDir'");
+		if(incremental) throw new ParameterException("'--jar' cannot be used with an incremental build");
+		if(runProgram || runRepl) throw new ParameterException("'--jar' cannot be used with 'run' or 'repl'");
 	}
 
 	private void testInformationalParameters() {
 		if(help) {
-			jCommander.usage();
-			System.exit(0);
+			printUsage();
+			throw new ExitException(0);
 		}
 		if(version) {
-			System.out.println("Water Compiler (JDK): " + VersionInformation.getVersionFormatted());
-			System.exit(0);
+			out.println("Water Compiler (JDK): " + VersionInformation.getVersionFormatted());
+			throw new ExitException(0);
 		}
 	}
 
@@ -223,19 +702,50 @@ public class Main {
 			try {
 				optimizations = OptimizationReader.readOptimizations(Path.of(optimizeConfig));
 			} catch (IOException e) {
-				System.err.printf("Failure reading file '%s': %s", optimizeConfig, e.getClass().getSimpleName().replace("Exception", ""));
-				System.exit(2);
+				err.printf("Failure reading file '%s': %s", optimizeConfig, e.getClass().getSimpleName().replace("Exception", ""));
+				throw new ExitException(2);
 			}
 		}
 		return optimizations;
 	}
 
-	public void setJCommander(JCommander jCommander) {
+	void setOutput(PrintStream out, PrintStream err) {
+		this.out = out;
+		this.err = err;
+	}
+
+	void setWorkingDirectory(Path workingDirectory) {
+		this.workingDirectory = workingDirectory;
+	}
+
+	void setDaemon(CompilerDaemon daemon) {
+		this.daemon = daemon;
+	}
+
+	void setJCommander(JCommander jCommander) {
 		this.jCommander = jCommander;
 	}
 
-	public JCommander getJCommander() {
+	JCommander getJCommander() {
 		return this.jCommander;
 	}
 
+	/**
+	 * Thrown to stop the compiler with an exit code, after any message has been printed.
+	 */
+	private static class ExitException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		private final int code;
+
+		public ExitException(int code) {
+			super(null, null, false, false);
+			this.code = code;
+		}
+
+		public int getCode() {
+			return code;
+		}
+	}
+
 }
@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.Properties;
 
 public class OptimizationReader {
+	private OptimizationReader() {}
 
 	/**
 	 * Optimisations which are on by default.
@@ -0,0 +1,275 @@
+package water.compiler;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
+import water.compiler.compiler.Scope;
+import water.compiler.lexer.Lexer;
+import water.compiler.lexer.TokenType;
+import water.compiler.symbol.SymbolTable;
+import water.compiler.timing.BuildTimings;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * An interactive session, where each input is compiled to a class of its own, and run, as soon as it is entered.
+ *
+ * Declarations - functions, variables, classes, enums, and imports - are compiled as the top level of a file,
+ * and any other input as the body of a function, which is run straight away. An expression has its value printed.
+ * The classes of each input are defined in a loader chained to that of the input before, and the top level functions
+ * and variables of each input are added to a scope which encloses every later input, so each input can use what was declared before it.
+ * The compiler and the classpath's symbols are kept for the whole session, so only the input itself is compiled each time.
+ */
+class Repl {
+	private static final String PROMPT = "water> ";
+	private static final String CONTINUATION_PROMPT = "  ...> ";
+
+	/** The function which non-declaration inputs are compiled into */
+	private static final String EVALUATE_FUNCTION = "evaluate";
+
+	private static final Set<TokenType> DECLARATIONS = EnumSet.of(
+			TokenType.FUNCTION, TokenType.CLASS, TokenType.ENUM, TokenType.VAR, TokenType.CONST, TokenType.PUBLIC, TokenType.PRIVATE
+	);
+
+	private final WaterCompiler compiler;
+	private final SymbolTable classpathSymbols;
+	private final BuildTimings timings;
+	private final PrintStream out;
+	private final PrintStream err;
+
+	/** The top level functions and variables of every input so far */
+	private final Scope declarations = new Scope(new Context());
+	/** The signature of every class of every input so far, keyed by internal name */
+	private final Map<String, byte[]> signatures = new HashMap<>();
+	/** The imports of every input so far, which are given to each later input */
+	private final StringBuilder imports = new StringBuilder();
+	/** The loader of the classes of the last input */
+	private ClassLoader loader;
+	private int inputCount = 0;
+
+	/**
+	 * @param optimizations The optimisations to use
+	 * @param classpathSymbols The symbol table of the classpath, whose loader is the parent of the inputs' classes
+	 * @param executor The worker pool which inputs are compiled on
+	 * @param timings Measures the phases of each input
+	 * @param out Where the output of inputs is printed
+	 * @param err Where errors are printed
+	 */
+	Repl(Properties optimizations, SymbolTable classpathSymbols, ExecutorService executor, BuildTimings timings, PrintStream out, PrintStream err) {
+		this.compiler = new WaterCompiler(optimizations, executor, null, timings, false);
+		this.compiler.setEnclosingScope(declarations);
+		this.classpathSymbols = classpathSymbols;
+		this.timings = timings;
+		this.out = out;
+		this.err = err;
+		this.loader = classpathSymbols.getClassLoader();
+	}
+
+	/**
+	 * Reads and evaluates inputs until the end of the input, or ':quit' is entered.
+	 * An input continues over multiple lines until all of its braces are closed.
+	 *
+	 * @param in The input of the session
+	 * @throws IOException If the input could not be read
+	 */
+	public void run(BufferedReader in) throws IOException {
+		StringBuilder input = new StringBuilder();
+		int depth = 0;
+
+		while(true) {
+			out.print(input.isEmpty() ? PROMPT : CONTINUATION_PROMPT);
+			out.flush();
+
+			String line = in.readLine();
+			if(line == null) break;
+			if(input.isEmpty() && line.strip().equals(":quit")) break;
+
+			input.append(line).append('\n');
+			depth += braceDepth(line);
+
+			if(depth > 0) continue;
+
+			try {
+				evaluate(input.toString());
+			} catch (RuntimeException e) {
+				// A failure of the compiler itself should not end the session
+				err.println("Internal compiler error: " + e);
+			}
+			input.setLength(0);
+			depth = 0;
+		}
+		out.println();
+	}
+
+	/**
+	 * Compiles and runs a single input, printing its errors or the value of an expression.
+	 * @param input The input
+	 * @return If the input compiled
+	 */
+	public boolean evaluate(String input) {
+		String source = input.strip();
+		if(source.isEmpty()) return true;
+
+		TokenType first = new Lexer().lex(source).getType(0);
+
+		if(first == TokenType.IMPORT) {
+			// Imports must come before any declaration, so they are given to every input from here on, rather than compiled alone
+			if(!compile(imports + source + "\n", false, true)) return false;
+			imports.append(source).append('\n');
+			return true;
+		}
+
+		if(DECLARATIONS.contains(first)) {
+			return compile(imports + source + "\n", true, true);
+		}
+
+		// Anything else is run as a statement, unless it is an expression with a value to print
+		String expression = source.endsWith(";") ? source.substring(0, source.length() - 1) : source;
+		if(!compile(imports + "function %s() { println(%s); }\n".formatted(EVALUATE_FUNCTION, expression), false, false)
+				&& !compile(imports + "function %s() {\n%s\n}\n".formatted(EVALUATE_FUNCTION, asStatement(source)), false, true)) {
+			return false;
+		}
+
+		try {
+			Class.forName(getFileClass(), false, loader).getMethod(EVALUATE_FUNCTION).invoke(null);
+		} catch (InvocationTargetException e) {
+			Main.removeCompilerFrames(e.getCause());
+			err.print("Exception: ");
+			e.getCause().printStackTrace(err);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+		return true;
+	}
+
+	/**
+	 * Compiles an input to classes of its own, then defines them, initializing the class of its top level declarations.
+	 *
+	 * @param source The source of the input
+	 * @param isDeclaration If the top level declarations of the input are made visible to later inputs
+	 * @param reportErrors If errors are printed, or the input is only being tried
+	 * @return If the input compiled
+	 */
+	private boolean compile(String source, boolean isDeclaration, boolean reportErrors) {
+		Path path = Path.of("Repl%d.wtr".formatted(inputCount + 1));
+		String fileClass = "Repl%dWtr".formatted(inputCount + 1);
+
+		Map<Path, Map<String, byte[]>> inputSignatures = new HashMap<>();
+		Map<String, byte[]> classes = new ConcurrentHashMap<>();
+		FileContext fc;
+
+		try {
+			fc = compiler.buildFiles(List.of(path), Map.of(path, source), new SymbolTable(classpathSymbols, signatures, timings), new HashMap<>()).get(0);
+			compiler.preprocessFiles(List.of(fc), new SymbolTable(classpathSymbols, signatures, timings), inputSignatures);
+
+			compiler.compileFiles(List.of(fc), (file, className, classFile) -> {
+				// Later inputs use the top level variables and functions of this one directly, from another loader
+				classes.put(className, className.equals(fileClass) ? exposeMembers(classFile) : classFile);
+			});
+		} catch (CompilationException e) {
+			if(reportErrors) {
+				for(Diagnostic diagnostic : e.getDiagnostics()) {
+					err.printf("Error @ '%s': %s%n", diagnostic.token(), diagnostic.message());
+				}
+			}
+			return false;
+		} catch (RuntimeException e) {
+			if(reportErrors) throw e;
+			return false;
+		} catch (IOException e) {
+			// Classes are only collected in memory, and inputs are not released, so this cannot happen
+			throw new IllegalStateException(e);
+		}
+
+		inputCount++;
+		signatures.putAll(inputSignatures.get(path));
+		loader = new WaterClassLoader(loader, classes);
+
+		if(!classes.containsKey(fileClass)) return true;
+
+		try {
+			// Initializing the class runs the initializers of its top level variables
+			Class.forName(fileClass, true, loader);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		} catch (ExceptionInInitializerError e) {
+			// The class can never be used, so its declarations are not made visible, and may be declared again
+			Main.removeCompilerFrames(e.getCause());
+			err.print("Exception: ");
+			e.getCause().printStackTrace(err);
+			return false;
+		}
+
+		if(isDeclaration) declarations.addTopLevelDeclarations(fc.getClassMap().get(fileClass));
+		return true;
+	}
+
+	/**
+	 * @return The name of the class of the last input's top level declarations
+	 */
+	private String getFileClass() {
+		return "Repl%dWtr".formatted(inputCount);
+	}
+
+	/**
+	 * Makes every field and method of a class public, so they can be used by the classes of later inputs.
+	 * @param classFile The byte[] representation of the class
+	 * @return The byte[] representation of the changed class
+	 */
+	private static byte[] exposeMembers(byte[] classFile) {
+		ClassWriter writer = new ClassWriter(0);
+		new ClassReader(classFile).accept(new ClassVisitor(Opcodes.ASM9, writer) {
+			@Override
+			public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+				return super.visitField(access & ~Opcodes.ACC_PRIVATE | Opcodes.ACC_PUBLIC, name, descriptor, signature, value);
+			}
+
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+				if(name.equals("<clinit>")) return super.visitMethod(access, name, descriptor, signature, exceptions);
+				return super.visitMethod(access & ~Opcodes.ACC_PRIVATE | Opcodes.ACC_PUBLIC, name, descriptor, signature, exceptions);
+			}
+		}, 0);
+		return writer.toByteArray();
+	}
+
+	/**
+	 * @param source An input which is not a declaration
+	 * @return The input, ending with a ';' if it is a single statement missing one
+	 */
+	private static String asStatement(String source) {
+		return source.endsWith(";") || source.endsWith("}") ? source : source + ";";
+	}
+
+	/**
+	 * @param line A line of input
+	 * @return The number of braces opened by the line, less those it closes, outside of string and character literals
+	 */
+	private static int braceDepth(String line) {
+		int depth = 0;
+		char quote = 0;
+		for(int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if(quote != 0) {
+				if(c == '\\') i++;
+				else if(c == quote) quote = 0;
+			}
+			else if(c == '"' || c == '\'') quote = c;
+			else if(c == '{') depth++;
+			else if(c == '}') depth--;
+		}
+		return depth;
+	}
+}
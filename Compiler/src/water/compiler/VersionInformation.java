@@ -10,6 +10,8 @@ public final class VersionInformation {
 
 	public static String FORMAT = "v%d.%d.%d";
 
+	private VersionInformation() {}
+
 	public static String getVersionFormatted() {
 		return FORMAT.formatted(MAJOR, MINOR, PATCH);
 	}
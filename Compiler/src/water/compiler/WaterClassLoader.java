@@ -8,25 +8,42 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
- * The class loader used by the compiler to resolve classes, including those which are defined in the compiling classes
+ * The class loader for the classpath, and for running compiled classes in memory.
+ * Compiling itself resolves classes through a {@link water.compiler.symbol.SymbolTable}, which never loads them.
  */
 public class WaterClassLoader extends URLClassLoader {
 
+	static {
+		// Files are compiled concurrently, all resolving classes through the same loaders
+		registerAsParallelCapable();
+	}
+
+	/** Classes which are only defined once they are first resolved, keyed by their internal name */
+	private final Map<String, byte[]> lazyClasses;
+
 	public WaterClassLoader(List<Path> classpath, ClassLoader parent) {
-		super(classpath == null ? new URL[0] : classpath.stream().filter(p -> !Files.isDirectory(p)).map(p -> Unthrow.wrap(() -> p.toFile().toURI().toURL())).toArray(URL[]::new), parent);
+		super(classpath == null ? new URL[0] : classpath.stream().map(p -> Unthrow.wrap(() -> p.toFile().toURI().toURL())).toArray(URL[]::new), parent);
+		this.lazyClasses = Map.of();
 	}
 
 	public WaterClassLoader(ClassLoader parent) {
+		this(parent, Map.of());
+	}
+
+	/**
+	 * Creates a loader which defines the given classes on demand.
+	 * @param parent The parent class loader
+	 * @param lazyClasses The byte[] representation of each class, keyed by the internal name
+	 */
+	public WaterClassLoader(ClassLoader parent, Map<String, byte[]> lazyClasses) {
 		super(new URL[0], parent);
+		this.lazyClasses = lazyClasses;
 	}
 
 	/**
@@ -39,39 +56,22 @@ public class WaterClassLoader extends URLClassLoader {
 		return defineClass(name, b, 0, b.length);
 	}
 
-	public static WaterClassLoader loadClasspath(List<Path> classpath) throws IOException {
-		WaterClassLoader loader = new WaterClassLoader(classpath, ClassLoader.getSystemClassLoader());
-
-		if(classpath == null) return loader;
-
-		for(Path p : classpath) {
-			if(Files.isDirectory(p)) {
-				try(Stream<Path> stream = Files.walk(p, Integer.MAX_VALUE)) {
-
-					List<Path> classes = stream
-							.map(p::relativize)
-							.filter(f -> f.toString().endsWith(".class"))
-							.collect(Collectors.toUnmodifiableList());
-
-					for(Path klass : classes) {
-						StringBuilder className = new StringBuilder();
-
-						for(int i = 0; i < klass.getNameCount(); i++) {
-							className.append(klass.getName(i).toString()).append('.');
-						}
-
-						className.delete(className.length() - 7, className.length());
-
-						Path abs = p.resolve(klass);
-
-						byte[] classData = Files.readAllBytes(abs);
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		byte[] b = lazyClasses.get(name.replace('.', '/'));
+		if(b != null) return define(name, b);
+		return super.findClass(name);
+	}
 
-						loader.define(className.toString(), classData);
-					}
-				}
-			}
-		}
-		return loader;
+	/**
+	 * Creates the loader for a classpath. Classes in both jars and directories are only read and defined
+	 * once they are resolved, through {@link #findClass(String)} and {@link #findResource(String)}.
+	 *
+	 * @param classpath The directories and jars of the classpath, or null if there is no classpath
+	 * @return The loader for the classpath
+	 */
+	public static WaterClassLoader loadClasspath(List<Path> classpath) {
+		return new WaterClassLoader(classpath, ClassLoader.getSystemClassLoader());
 	}
 
 }
@@ -0,0 +1,429 @@
+package water.compiler;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
+import water.compiler.compiler.Scope;
+import water.compiler.compiler.SemanticException;
+import water.compiler.lexer.Lexer;
+import water.compiler.lexer.Token;
+import water.compiler.lexer.TokenStream;
+import water.compiler.parser.ASTPrettyPrinter;
+import water.compiler.parser.Node;
+import water.compiler.parser.Parser;
+import water.compiler.parser.UnexpectedTokenException;
+import water.compiler.symbol.ClassSymbol;
+import water.compiler.symbol.SymbolIndexes;
+import water.compiler.symbol.SymbolTable;
+import water.compiler.symbol.SymbolWriter;
+import water.compiler.timing.BuildTimings;
+import water.compiler.timing.Phase;
+import water.compiler.util.Pair;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compiles Water sources to classes, without any file system access.
+ *
+ * {@link #compile(Map, CompilerOptions)} compiles a set of sources entirely in memory.
+ * An instance exposes each stage of compilation separately, which {@link Main} uses to compile files on disk:
+ * building classes - lex, parse, and build a 'template' of each class, with no fields or methods.
+ * preprocessing - build a 'template' of the class, with all fields and methods, but no implementations.
+ * compiling - build a full class, including implementations, to be outputted.
+ * Templates and preprocessed classes are only written as symbol records, so each full class is the only class file assembled,
+ * and is serialized exactly once.
+ *
+ * Classes are resolved through {@link SymbolTable}s, which read class files rather than loading them,
+ * so the classes being compiled, and those of the classpath, are not loaded into the JVM.
+ */
+public class WaterCompiler {
+	private final Properties optimizations;
+	private final ExecutorService executor;
+	private final PrintStream prettyPrintOutput;
+	private final BuildTimings timings;
+	/** If each file's AST and context are released once a phase is done with them, and built again from source for the next */
+	private final boolean releaseFiles;
+	/** Declarations made outside of the files being compiled, which every file may use, or null if there are none */
+	private Scope enclosingScope;
+
+	/**
+	 * Receives each full class as it is generated. This is called from worker threads, so must be thread safe.
+	 */
+	@FunctionalInterface
+	interface ClassOutput {
+		void accept(FileContext fc, String className, byte[] classFile) throws IOException;
+	}
+
+	/**
+	 * @param optimizations The optimisations to use
+	 * @param executor The worker pool which files are compiled on
+	 * @param prettyPrintOutput Where to print the AST of each file, or null to not print it
+	 */
+	WaterCompiler(Properties optimizations, ExecutorService executor, PrintStream prettyPrintOutput) {
+		this(optimizations, executor, prettyPrintOutput, new BuildTimings(false), false);
+	}
+
+	/**
+	 * @param optimizations The optimisations to use
+	 * @param executor The worker pool which files are compiled on
+	 * @param prettyPrintOutput Where to print the AST of each file, or null to not print it
+	 * @param timings Measures each phase of each file
+	 * @param releaseFiles If only the class signatures of each file are kept between phases, with the file being lexed and parsed again
+	 *                     for each phase. This trades time for memory, so that memory does not grow with the ASTs of every file.
+	 */
+	WaterCompiler(Properties optimizations, ExecutorService executor, PrintStream prettyPrintOutput, BuildTimings timings, boolean releaseFiles) {
+		this.optimizations = optimizations;
+		this.executor = executor;
+		this.prettyPrintOutput = prettyPrintOutput;
+		this.timings = timings;
+		this.releaseFiles = releaseFiles;
+	}
+
+	/**
+	 * Makes declarations from outside of the compiled files visible to every file, as the REPL does with those of earlier inputs.
+	 * @param enclosingScope The scope of the declarations, which is read as each file is compiled, or null for none
+	 */
+	void setEnclosingScope(Scope enclosingScope) {
+		this.enclosingScope = enclosingScope;
+	}
+
+	/**
+	 * Compiles sources in memory.
+	 *
+	 * @param sources The content of each source file, keyed by file name (such as "Main.wtr").
+	 *                Files are compiled in the map's iteration order.
+	 * @param options The options to compile with
+	 * @return The generated classes, or the errors which stopped compilation
+	 */
+	public static CompilationResult compile(Map<String, String> sources, CompilerOptions options) {
+		ExecutorService executor = newWorkerPool(options.getThreads());
+
+		BuildTimings timings = new BuildTimings(false);
+
+		try {
+			WaterCompiler compiler = new WaterCompiler(options.getOptimizations(), executor, null, timings, false);
+
+			Map<Path, String> sourceFiles = new LinkedHashMap<>();
+			for(Map.Entry<String, String> source : sources.entrySet()) {
+				sourceFiles.put(Path.of(source.getKey()), source.getValue());
+			}
+			List<Path> paths = new ArrayList<>(sourceFiles.keySet());
+
+			SymbolIndexes symbolIndexes = options.getSymbolIndex() == null ? null : new SymbolIndexes(options.getSymbolIndex());
+			SymbolTable classpathSymbols = new SymbolTable(options.getClassLoader(), symbolIndexes);
+
+			SymbolTable buildSymbols = new SymbolTable(classpathSymbols, Map.of(), timings);
+			List<FileContext> fileContexts = compiler.buildFiles(paths, sourceFiles, buildSymbols, new HashMap<>());
+
+			SymbolTable preprocessSymbols = new SymbolTable(classpathSymbols, Map.of(), timings);
+			compiler.preprocessFiles(fileContexts, preprocessSymbols, new HashMap<>());
+
+			Map<String, byte[]> classes = new ConcurrentHashMap<>();
+			compiler.compileFiles(fileContexts, (fc, className, classFile) -> classes.put(className.replace('/', '.'), classFile));
+
+			if(symbolIndexes != null) symbolIndexes.save();
+
+			return new CompilationResult(new TreeMap<>(classes), List.of());
+		} catch (CompilationException e) {
+			return new CompilationResult(Map.of(), e.getDiagnostics());
+		} catch (IOException e) {
+			// Classes are only collected in memory, and files are not released, so this cannot happen
+			throw new UncheckedIOException(e);
+		} finally {
+			executor.shutdownNow();
+			timings.finish(sources.size());
+		}
+	}
+
+	/**
+	 * Creates a pool of worker threads for compiling files.
+	 * The threads do not prevent the JVM from exiting.
+	 *
+	 * @param threads The number of threads
+	 * @return The worker pool
+	 */
+	static ExecutorService newWorkerPool(int threads) {
+		return Executors.newFixedThreadPool(Math.max(threads, 1), task -> {
+			Thread worker = new Thread(task, "water-compiler-worker");
+			worker.setDaemon(true);
+			return worker;
+		});
+	}
+
+	/**
+	 * Lexes, parses, and builds classes for all files on the worker pool.
+	 * Class templates are defined in the order the files were given, so that errors and class definition are deterministic.
+	 *
+	 * @param paths The source files
+	 * @param sources The content of each source file
+	 * @param buildSymbols The symbol table to define class templates in
+	 * @param templates Receives the symbol record of each file's class templates
+	 * @return The context of each file, in the order the files were given
+	 * @throws CompilationException If any file could not be parsed, or its classes could not be built
+	 */
+	List<FileContext> buildFiles(List<Path> paths, Map<Path, String> sources, SymbolTable buildSymbols, Map<Path, Map<String, byte[]>> templates) throws CompilationException {
+		List<Future<Pair<FileContext, Map<String, byte[]>>>> frontEndTasks = new ArrayList<>();
+		for(Path path : paths) {
+			String source = sources.get(path);
+			frontEndTasks.add(executor.submit(() -> buildFile(path, source, buildSymbols)));
+		}
+
+		ArrayList<FileContext> fileContexts = new ArrayList<>();
+		List<Diagnostic> diagnostics = new ArrayList<>();
+
+		for(int i = 0; i < paths.size(); i++) {
+			Path path = paths.get(i);
+			try {
+				Pair<FileContext, Map<String, byte[]>> result = await(frontEndTasks.get(i));
+				FileContext fc = result.getFirst();
+
+				// Once one file has failed, nothing more will be compiled, so the remaining files are only checked for errors
+				if(!diagnostics.isEmpty()) continue;
+
+				if(prettyPrintOutput != null) {
+					prettyPrintOutput.printf("==== %s ====%n", path);
+					prettyPrintOutput.println(ASTPrettyPrinter.prettyPrint(fc.getAst()));
+				}
+
+				Map<String, ClassSymbol> classMap = new HashMap<>();
+
+				for(Map.Entry<String, byte[]> classes : result.getSecond().entrySet()) {
+					classMap.put(classes.getKey(), buildSymbols.define(classes.getKey(), classes.getValue()));
+				}
+
+				fc.setClassMap(classMap);
+				fileContexts.add(fc);
+				templates.put(path, result.getSecond());
+
+				if(releaseFiles) fc.release(buildSymbols);
+			} catch (IOException e) {
+				// Sources are given already read, so this cannot happen
+				throw new UncheckedIOException(e);
+			} catch (UnexpectedTokenException e) {
+				diagnostics.add(toDiagnostic(path, e));
+			} catch (SemanticException e) {
+				diagnostics.add(toDiagnostic(path, e));
+			}
+		}
+
+		if(!diagnostics.isEmpty()) throw new CompilationException(diagnostics);
+
+		return fileContexts;
+	}
+
+	/**
+	 * Lexes, parses, and builds the class templates for a single file.
+	 * Each file uses its own lexer, parser, and context, so this may be run concurrently for different files.
+	 *
+	 * @param path The path of the source file
+	 * @param source The content of the source file
+	 * @param symbols The symbol table which the class templates will be defined in
+	 * @return The file's context, and the symbol record of each class it declares
+	 */
+	private Pair<FileContext, Map<String, byte[]>> buildFile(Path path, String source, SymbolTable symbols) throws UnexpectedTokenException, SemanticException {
+		Lexer lexer = new Lexer();
+		TokenStream lexResult = lexer.lex(source);
+
+		// Tokens are otherwise lexed as they are parsed, so the time of each could not be told apart
+		if(timings.isMeasuring()) {
+			timings.run(Phase.LEX, path, lexResult::lexAll);
+		}
+
+		Parser parser = new Parser();
+		Node program = timings.call(Phase.PARSE, path, () -> parser.parse(lexResult));
+
+		Context context = new Context();
+		context.setSource(path.getFileName().toString());
+		context.setSymbols(symbols);
+		// Until the file is compiled, its classes are only needed as symbols
+		context.setSignaturesOnly(true);
+		Scope redefinitionResolver = enclosingScope == null ? new Scope(context) : new Scope(context, enclosingScope);
+		context.setScope(redefinitionResolver);
+
+		timings.run(Phase.BUILD_CLASSES, path, () -> program.buildClasses(context));
+
+		Map<String, byte[]> classes = new HashMap<>();
+
+		timings.run(Phase.TO_BYTE_ARRAY, path, () -> {
+			for(Map.Entry<String, ClassVisitor> writer : context.getClassWriterMap().entrySet()) {
+				classes.put(writer.getKey(), ((SymbolWriter) writer.getValue()).toRecord());
+			}
+		});
+
+		return new Pair<>(new FileContext(program, context, null, path, optimizations), classes);
+	}
+
+	/**
+	 * Preprocesses all files, defining the preprocessed classes in the preprocess symbol table.
+	 * Files may depend on the classes of files before them, so this stops at the first error.
+	 * Released files are built again for preprocessing, then released again.
+	 *
+	 * @param fileContexts The files to preprocess
+	 * @param preprocessSymbols The symbol table to define preprocessed classes in
+	 * @param signatures Receives the symbol record of each file's preprocessed classes
+	 * @throws CompilationException If a file could not be preprocessed
+	 * @throws IOException If a released file could not be read again, with a message describing the failure
+	 */
+	void preprocessFiles(List<FileContext> fileContexts, SymbolTable preprocessSymbols, Map<Path, Map<String, byte[]>> signatures) throws CompilationException, IOException {
+		for(FileContext fc : fileContexts) {
+			try {
+				FileContext file = fc.isReleased() ? rebuild(fc) : fc;
+
+				timings.run(Phase.PREPROCESS, fc.getPath(), () -> file.getAst().preprocess(file.getContext()));
+
+				Map<String, ClassSymbol> classMap = new HashMap<>();
+				Map<String, byte[]> classes = new HashMap<>();
+
+				for(Map.Entry<String, ClassVisitor> writer : file.getContext().getClassWriterMap().entrySet()) {
+					byte[] record = timings.call(Phase.TO_BYTE_ARRAY, fc.getPath(), ((SymbolWriter) writer.getValue())::toRecord);
+
+					classMap.put(writer.getKey(), preprocessSymbols.define(writer.getKey(), record));
+					classes.put(writer.getKey(), record);
+				}
+				fc.setClassMap(classMap);
+				if(fc.isReleased()) {
+					fc.release(preprocessSymbols);
+				}
+				else {
+					fc.getContext().setSymbols(preprocessSymbols);
+				}
+				signatures.put(fc.getPath(), classes);
+			} catch (UnexpectedTokenException e) {
+				throw new CompilationException(List.of(toDiagnostic(fc.getPath(), e)));
+			} catch (SemanticException e) {
+				throw new CompilationException(List.of(toDiagnostic(fc.getPath(), e)));
+			}
+		}
+	}
+
+	/**
+	 * Compiles all classes (no re-parse), each file on the worker pool as they only read from the preprocess symbol table.
+	 *
+	 * @param fileContexts The preprocessed files
+	 * @param output Receives each generated class
+	 * @return The byte[] representation of each file's classes, keyed by internal name, in the same order as the files.
+	 * The classes of released files are only given to the output, so are not returned, to keep them from being held in memory.
+	 * @throws CompilationException If any file could not be compiled
+	 * @throws IOException If the output failed to accept a class, or a released file could not be read again
+	 */
+	List<Map<String, byte[]>> compileFiles(List<FileContext> fileContexts, ClassOutput output) throws CompilationException, IOException {
+		List<Future<Map<String, byte[]>>> compileTasks = new ArrayList<>();
+		for(FileContext fc : fileContexts) {
+			compileTasks.add(executor.submit(() -> compileFile(fc, output)));
+		}
+
+		List<Map<String, byte[]>> compiledClasses = new ArrayList<>();
+		List<Diagnostic> diagnostics = new ArrayList<>();
+
+		for(int i = 0; i < fileContexts.size(); i++) {
+			FileContext fc = fileContexts.get(i);
+			try {
+				compiledClasses.add(await(compileTasks.get(i)));
+			} catch (UnexpectedTokenException e) {
+				diagnostics.add(toDiagnostic(fc.getPath(), e));
+			} catch (SemanticException e) {
+				diagnostics.add(toDiagnostic(fc.getPath(), e));
+			}
+		}
+
+		if(!diagnostics.isEmpty()) throw new CompilationException(diagnostics);
+
+		return compiledClasses;
+	}
+
+	/**
+	 * Generates the full classes for a single, preprocessed file.
+	 * This may be run concurrently for different files. A released file is built and preprocessed again first.
+	 *
+	 * @param fc The context of the file to compile
+	 * @param output Receives each generated class
+	 * @return The byte[] representation of each class, keyed by internal name, or nothing if the file was released
+	 */
+	private Map<String, byte[]> compileFile(FileContext fc, ClassOutput output) throws IOException, UnexpectedTokenException, SemanticException {
+		boolean released = fc.isReleased();
+		FileContext file = released ? rebuild(fc) : fc;
+		if(released) {
+			timings.run(Phase.PREPROCESS, file.getPath(), () -> file.getAst().preprocess(file.getContext()));
+		}
+
+		Scope scope = enclosingScope == null ? new Scope(file) : new Scope(file, enclosingScope);
+		file.getContext().setScope(scope);
+		file.getContext().setSignaturesOnly(false);
+
+		timings.run(Phase.VISIT, file.getPath(), () -> file.getAst().visit(file));
+
+		Map<String, byte[]> classes = new HashMap<>();
+
+		for(String baseClassName : file.getClassMap().keySet()) {
+			ClassWriter writer = (ClassWriter) file.getContext().getClassWriterMap().get(baseClassName);
+			byte[] klassRep = timings.call(Phase.TO_BYTE_ARRAY, file.getPath(), writer::toByteArray);
+
+			timings.run(Phase.WRITE, file.getPath(), () -> output.accept(file, baseClassName, klassRep));
+
+			if(!released) classes.put(baseClassName, klassRep);
+		}
+		return classes;
+	}
+
+	/**
+	 * Builds a released file again, reading its source from disk, with the symbols it was released with.
+	 * The templates built are discarded, as the file's classes are already defined.
+	 *
+	 * @param fc The released file
+	 * @return The file's new context, with the class map of the released file
+	 * @throws IOException If the file could not be read, with a message describing the failure
+	 */
+	private FileContext rebuild(FileContext fc) throws IOException, UnexpectedTokenException, SemanticException {
+		String source;
+		try {
+			source = Files.readString(fc.getPath());
+		} catch (IOException e) {
+			throw new IOException("Failure reading file '%s': %s".formatted(fc.getPath().toString(), e.getClass().getSimpleName().replace("Exception", "")), e);
+		}
+
+		FileContext file = buildFile(fc.getPath(), source, fc.getSymbols()).getFirst();
+		file.setClassMap(fc.getClassMap());
+		return file;
+	}
+
+	private Diagnostic toDiagnostic(Path path, UnexpectedTokenException e) {
+		Token token = e.getToken();
+		return new Diagnostic(Diagnostic.Kind.SYNTAX, path.toString(), token.getLine(), token.getColumn(), token.getValue(), e.getMessage(), e.getErrorMessage(path.toString()));
+	}
+
+	private Diagnostic toDiagnostic(Path path, SemanticException e) {
+		Token token = e.getLocation();
+		return new Diagnostic(Diagnostic.Kind.SEMANTIC, path.toString(), token.getLine(), token.getColumn(), token.getValue(), e.getMessage(), e.getErrorMessage(path.toString()));
+	}
+
+	/**
+	 * Waits for a task from the worker pool, rethrowing any compiler exception it produced.
+	 *
+	 * @param task The task to wait for
+	 * @param <T> The result type of the task
+	 * @return The result of the task
+	 */
+	static <T> T await(Future<T> task) throws IOException, UnexpectedTokenException, SemanticException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException ioException) throw ioException;
+			if(cause instanceof UnexpectedTokenException unexpectedTokenException) throw unexpectedTokenException;
+			if(cause instanceof SemanticException semanticException) throw semanticException;
+			if(cause instanceof RuntimeException runtimeException) throw runtimeException;
+			if(cause instanceof Error err) throw err;
+			throw new IllegalStateException(cause);
+		}
+	}
+}
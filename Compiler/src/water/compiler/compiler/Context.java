@@ -1,12 +1,15 @@
 package water.compiler.compiler;
 
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
-import water.compiler.WaterClassLoader;
 import water.compiler.parser.nodes.classes.ConstructorDeclarationNode;
 import water.compiler.parser.nodes.variable.VariableDeclarationNode;
+import water.compiler.symbol.SymbolTable;
+import water.compiler.symbol.SymbolWriter;
+import water.compiler.util.WaterClassWriter;
 import water.compiler.util.WaterType;
 
 import java.util.HashMap;
@@ -19,7 +22,7 @@ import java.util.Map;
  */
 public class Context {
 	private final HashMap<String, String> imports;
-	private final Map<String, ClassWriter> classWriterMap;
+	private final Map<String, ClassVisitor> classWriterMap;
 	private ContextType type;
 	private String source;
 	private String packageName;
@@ -27,7 +30,9 @@ public class Context {
 	private MethodVisitor methodVisitor;
 	private MethodVisitor staticMethodVisitor;
 	private MethodVisitor defaultConstructor;
-	private WaterClassLoader loader;
+	/** If classes are only being built for their signatures, so are written as symbol records rather than class files */
+	private boolean signaturesOnly;
+	private SymbolTable symbols;
 	private Scope scope;
 	private WaterType currentSuperClass;
 	private boolean isStaticMethod;
@@ -74,10 +79,20 @@ public class Context {
 		this.currentClass = currentClass;
 	}
 
-	public Map<String, ClassWriter> getClassWriterMap() {
+	public Map<String, ClassVisitor> getClassWriterMap() {
 		return classWriterMap;
 	}
 
+	/**
+	 * Creates the writer for a class being built. While only signatures are being built,
+	 * this is a {@link SymbolWriter}, otherwise a {@link ClassWriter} which computes frames through the symbol table.
+	 * @return The writer
+	 */
+	public ClassVisitor createClassWriter() {
+		if(signaturesOnly) return new SymbolWriter();
+		return new WaterClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES, symbols);
+	}
+
 	public MethodVisitor getMethodVisitor() {
 		return methodVisitor;
 	}
@@ -102,12 +117,20 @@ public class Context {
 		this.defaultConstructor = defaultConstructor;
 	}
 
-	public WaterClassLoader getLoader() {
-		return loader;
+	public boolean isSignaturesOnly() {
+		return signaturesOnly;
+	}
+
+	public void setSignaturesOnly(boolean signaturesOnly) {
+		this.signaturesOnly = signaturesOnly;
+	}
+
+	public SymbolTable getSymbols() {
+		return symbols;
 	}
 
-	public void setLoader(WaterClassLoader loader) {
-		this.loader = loader;
+	public void setSymbols(SymbolTable symbols) {
+		this.symbols = symbols;
 	}
 
 	public Scope getScope() {
@@ -164,7 +187,7 @@ public class Context {
 		mv.visitLineNumber(line, l);
 	}
 
-	public ClassWriter getCurrentClassWriter() {
+	public ClassVisitor getCurrentClassWriter() {
 		return classWriterMap.get(currentClass);
 	}
 
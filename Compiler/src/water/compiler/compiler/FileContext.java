@@ -1,7 +1,8 @@
-package water.compiler;
+package water.compiler.compiler;
 
-import water.compiler.compiler.Context;
 import water.compiler.parser.Node;
+import water.compiler.symbol.ClassSymbol;
+import water.compiler.symbol.SymbolTable;
 
 import java.nio.file.Path;
 import java.util.Map;
@@ -14,13 +15,16 @@ import java.util.Properties;
  * @see water.compiler.compiler.Context
  */
 public class FileContext {
-	private final Node ast;
-	private final Context context;
-	private Map<String, Class<?>> classMap;
+	private Node ast;
+	private Context context;
+	private Map<String, ClassSymbol> classMap;
 	private final Path path;
 	private final Properties optimizations;
 
-	public FileContext(Node ast, Context context, Map<String, Class<?>> classMap, Path path, Properties optimizations) {
+	/** The symbol table the file is built again with once it has been released, which is null until then */
+	private SymbolTable symbols;
+
+	public FileContext(Node ast, Context context, Map<String, ClassSymbol> classMap, Path path, Properties optimizations) {
 		this.ast = ast;
 		this.context = context;
 		this.classMap = classMap;
@@ -36,11 +40,11 @@ public class FileContext {
 		return context;
 	}
 
-	public Map<String, Class<?>> getClassMap() {
+	public Map<String, ClassSymbol> getClassMap() {
 		return classMap;
 	}
 
-	public void setClassMap(Map<String, Class<?>> classMap) {
+	public void setClassMap(Map<String, ClassSymbol> classMap) {
 		this.classMap = classMap;
 	}
 
@@ -48,7 +52,27 @@ public class FileContext {
 		return path;
 	}
 
-	public Class<?> getCurrentClass() {
+	/**
+	 * Drops the AST and context of the file, which hold most of its memory, keeping only what is needed to build it again.
+	 * Once released, the AST and context are null, and the file is read again from its path when it is next built.
+	 *
+	 * @param symbols The symbol table the file is built again with
+	 */
+	public void release(SymbolTable symbols) {
+		this.symbols = symbols;
+		this.ast = null;
+		this.context = null;
+	}
+
+	public boolean isReleased() {
+		return ast == null;
+	}
+
+	public SymbolTable getSymbols() {
+		return symbols;
+	}
+
+	public ClassSymbol getCurrentClass() {
 		return classMap.get(context.getCurrentClass());
 	}
 
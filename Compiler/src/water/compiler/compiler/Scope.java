@@ -1,35 +1,40 @@
 package water.compiler.compiler;
 
-import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.parser.Node;
+import water.compiler.symbol.ClassSymbol;
+import water.compiler.symbol.FieldSymbol;
+import water.compiler.symbol.MethodSymbol;
 import water.compiler.util.Pair;
 import water.compiler.util.WaterType;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Represents the current scope of the compiler
  * Includes variables and functions, locals, etc.
- * Nested for each block.
+ * Nested for each block, each nested scope being linked to its enclosing scope, rather than copying it.
  */
 public class Scope {
-	private FileContext fileContext;
-	private Context context;
-	private HashMap<String, ArrayList<Function>> functionMap;
-	private HashMap<String, Variable> variables;
+	/** The enclosing scope, or null for the outermost scope */
+	private final Scope parent;
+	private final Context context;
+	/** Functions and variables declared at this depth - those of enclosing scopes are found through the parent */
+	private final HashMap<String, ArrayList<Function>> functionMap;
+	private final HashMap<String, Variable> variables;
 	private int localIndex;
 	private WaterType returnType;
 	private boolean returned;
+	/** The types of nodes computed within this scope - a nested scope may declare variables which change them */
+	private final Map<Node, WaterType> nodeTypes = new IdentityHashMap<>();
 
 	public Scope(FileContext context) {
-		functionMap = new HashMap<>();
-		variables = new HashMap<>();
+		this.parent = null;
+		this.functionMap = new HashMap<>();
+		this.variables = new HashMap<>();
 		this.context = context.getContext();
 		this.localIndex = 0;
 		this.returnType = WaterType.VOID_TYPE;
@@ -39,6 +44,7 @@ public class Scope {
 	}
 
 	public Scope(Context context) {
+		this.parent = null;
 		this.context = context;
 		this.functionMap = new HashMap<>();
 		this.variables = new HashMap<>();
@@ -46,6 +52,30 @@ public class Scope {
 		addPrintlnFunctions();
 	}
 
+	/**
+	 * Creates the outermost scope of a file, within declarations made outside of the file, such as those of earlier REPL inputs.
+	 * @param context The context of the file
+	 * @param enclosing The scope holding the outside declarations, which the file may use but not redefine
+	 */
+	public Scope(FileContext context, Scope enclosing) {
+		this(context.getContext(), enclosing);
+		updateCurrentClassMethods(context);
+	}
+
+	/**
+	 * Creates the outermost scope of a file, within declarations made outside of the file, such as those of earlier REPL inputs.
+	 * @param context The context of the file
+	 * @param enclosing The scope holding the outside declarations, which the file may use but not redefine
+	 */
+	public Scope(Context context, Scope enclosing) {
+		this.parent = enclosing;
+		this.context = context;
+		this.functionMap = new HashMap<>();
+		this.variables = new HashMap<>();
+		this.localIndex = 0;
+		this.returnType = WaterType.VOID_TYPE;
+	}
+
 	private void addPrintlnFunctions() {
 		addFunction(new Function(FunctionType.SOUT, "println", "java/io/PrintStream", WaterType.getMethodType("()V")));
 		addFunction(new Function(FunctionType.SOUT, "println", "java/io/PrintStream", WaterType.getMethodType("(D)V")));
@@ -57,42 +87,93 @@ public class Scope {
 		addFunction(new Function(FunctionType.SOUT, "println", "java/io/PrintStream", WaterType.getMethodType(WaterType.VOID_TYPE, WaterType.NULLABLE_OBJECT_TYPE)));
 	}
 
-	private Scope() {}
+	private Scope(Scope parent) {
+		this.parent = parent;
+		this.context = parent.context;
+		this.functionMap = new HashMap<>();
+		this.variables = new HashMap<>();
+		this.returnType = parent.returnType;
+		this.returned = parent.returned;
+		this.localIndex = parent.localIndex;
+	}
 
 	public void updateCurrentClassMethods(FileContext context) {
-		Class<?> klass = context.getCurrentClass();
+		ClassSymbol klass = context.getCurrentClass();
 		if(klass == null) return;
-		for(Method m : klass.getDeclaredMethods()) {
-			int modifier = m.getModifiers();
-			boolean isStatic = Modifier.isStatic(modifier);
-			addFunction(new Function(isStatic ? FunctionType.STATIC : FunctionType.CLASS, m.getName(), Type.getInternalName(klass), WaterType.getType(m)));
+		for(MethodSymbol m : klass.getDeclaredMethods()) {
+			addFunction(new Function(m.isStatic() ? FunctionType.STATIC : FunctionType.CLASS, m.name(), klass.getName(), m.type()));
+		}
+
+		for(FieldSymbol f : klass.getDeclaredFields()) {
+			addVariable(new Variable(f.isStatic() ? VariableType.STATIC : VariableType.CLASS, f.name(), klass.getName(), WaterType.getType(f.descriptor()), f.isFinal()));
+		}
+	}
+
+	/**
+	 * Adds the top level functions and variables of a file's class, so that they may be used outside of the file.
+	 * Synthetic methods, such as the main method taking arguments, are not added.
+	 * @param klass The class holding the file's top level declarations
+	 */
+	public void addTopLevelDeclarations(ClassSymbol klass) {
+		for(MethodSymbol m : klass.getDeclaredMethods()) {
+			if(!m.isStatic() || m.isSynthetic()) continue;
+			addFunction(new Function(FunctionType.STATIC, m.name(), klass.getName(), m.type()));
 		}
 
-		for(Field f : klass.getDeclaredFields()) {
-			int modifier = f.getModifiers();
-			boolean isStatic = Modifier.isStatic(modifier);
-			addVariable(new Variable(isStatic ? VariableType.STATIC : VariableType.CLASS, f.getName(), Type.getInternalName(klass), WaterType.getType(f.getType()), Modifier.isFinal(f.getModifiers())));
+		for(FieldSymbol f : klass.getDeclaredFields()) {
+			if(!f.isStatic()) continue;
+			addVariable(new Variable(VariableType.STATIC, f.name(), klass.getName(), f.type(), f.isFinal()));
 		}
 	}
 
+	/**
+	 * Creates a scope nested within this one. Variables declared in the nested scope shadow those of this scope,
+	 * and the return state is only passed back to this scope by the caller.
+	 *
+	 * @return The nested scope
+	 */
 	public Scope nextDepth() {
-		Scope scope = new Scope();
-		scope.setFileContext(fileContext)
-				.setContext(context)
-				.setVariables(new HashMap<>(variables))
-				.setFunctionMap(new HashMap<>(functionMap))
-				.setReturnType(returnType)
-				.setReturned(returned)
-				.setLocalIndex(localIndex);
-		return scope;
+		return new Scope(this);
 	}
 
+	/**
+	 * Gets the type which a node will produce, computing it only the first time it is needed within this scope.
+	 * A node is only typed where it appears in the source, so the variables it refers to cannot change within the same scope.
+	 *
+	 * @param node The node
+	 * @param context The context of the node
+	 * @return The type which the node will produce
+	 * @throws SemanticException If the node is not valid
+	 */
+	public WaterType getNodeType(Node node, Context context) throws SemanticException {
+		WaterType type = nodeTypes.get(node);
+		if(type == null) {
+			// Not computeIfAbsent, as a node's children are typed (and cached) while computing it
+			type = node.computeReturnType(context);
+			nodeTypes.put(node, type);
+		}
+		return type;
+	}
+
+	/**
+	 * Finds all functions of a name, from the outermost scope inwards.
+	 * @param name The name of the functions
+	 * @return The functions, or null if there are none
+	 */
 	public ArrayList<Function> lookupFunctions(String name) {
-		return functionMap.get(name);
+		ArrayList<Function> declared = functionMap.get(name);
+		ArrayList<Function> enclosing = parent == null ? null : parent.lookupFunctions(name);
+
+		if(enclosing == null) return declared;
+		if(declared == null) return enclosing;
+
+		ArrayList<Function> functions = new ArrayList<>(enclosing);
+		functions.addAll(declared);
+		return functions;
 	}
 
 	public Function lookupFunction(String name, WaterType[] argsTypes, Node[] args, boolean visit, FileContext fc) throws ClassNotFoundException, SemanticException {
-		ArrayList<Function> funcs = functionMap.get(name);
+		ArrayList<Function> funcs = lookupFunctions(name);
 		if(funcs == null) return null;
 
 		ArrayList<Pair<Integer, Function>> possible = new ArrayList<>();
@@ -141,7 +222,7 @@ public class Scope {
 	}
 
 	public Function exactLookupFunction(String name, WaterType... args) throws ClassNotFoundException {
-		ArrayList<Function> funcs = functionMap.get(name);
+		ArrayList<Function> funcs = lookupFunctions(name);
 		if(funcs == null) return null;
 
 		out : for(Function f : funcs) {
@@ -156,7 +237,7 @@ public class Scope {
 				if(arg.equals(WaterType.VOID_TYPE))
 					continue out;
 
-				if(!expectArg.toClass(context).isAssignableFrom(arg.toClass(context)))
+				if(!context.getSymbols().isAssignableFrom(expectArg, arg))
 					continue out;
 			}
 			return f;
@@ -186,7 +267,11 @@ public class Scope {
 	}
 
 	public Variable lookupVariable(String name) {
-		return variables.get(name);
+		for(Scope scope = this; scope != null; scope = scope.parent) {
+			Variable variable = scope.variables.get(name);
+			if(variable != null) return variable;
+		}
+		return null;
 	}
 
 	public int nextLocal() {
@@ -197,26 +282,6 @@ public class Scope {
 		this.localIndex = localIndex;
 	}
 
-	private Scope setFileContext(FileContext fileContext) {
-		this.fileContext = fileContext;
-		return this;
-	}
-
-	private Scope setContext(Context context) {
-		this.context = context;
-		return this;
-	}
-
-	private Scope setFunctionMap(HashMap<String, ArrayList<Function>> functionMap) {
-		this.functionMap = functionMap;
-		return this;
-	}
-
-	private Scope setVariables(HashMap<String, Variable> variables) {
-		this.variables = variables;
-		return this;
-	}
-
 	public WaterType getReturnType() {
 		return returnType;
 	}
@@ -16,6 +16,10 @@ public class SemanticException extends Exception {
 		this.message = message;
 	}
 
+	public Token getLocation() {
+		return location;
+	}
+
 	public String getErrorMessage(String filename) {
 		return "[%s:%s:%s] Semantic Error @ '%s': %s".formatted(filename, location.getLine(), location.getColumn(), location.getValue(), message);
 	}
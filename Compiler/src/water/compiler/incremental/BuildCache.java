@@ -0,0 +1,364 @@
+package water.compiler.incremental;
+
+import water.compiler.symbol.ClassSymbol;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent record of a previous build, used to only recompile files which could have changed.
+ *
+ * For each source file, this stores the hash of its content, the templates of its classes (from building classes),
+ * the signatures of its classes (from preprocessing), and the classes referenced by its generated code.
+ * Templates and signatures are kept as symbol records, as the compiler produces them.
+ */
+public class BuildCache {
+	private static final int MAGIC = 0x57545243;
+	private static final int FORMAT_VERSION = 2;
+
+	private final String configurationHash;
+	private final Map<String, CachedFile> files;
+	/** The class files of classes which are no longer generated, deleted by {@link #deleteStaleClassFiles()} */
+	private final Set<String> staleClassFiles = new HashSet<>();
+
+	/**
+	 * A class generated by a source file
+	 * @param name The internal name of the class
+	 * @param template The symbol record of the class, as produced when building classes
+	 * @param signature The symbol record of the class, as produced when preprocessing
+	 * @param signatureHash The hash of the signature, as produced by {@link SignatureHasher}
+	 * @param classFile The path the full class was written to
+	 */
+	public record CachedClass(String name, byte[] template, byte[] signature, String signatureHash, String classFile) {}
+
+	/**
+	 * A compiled source file
+	 * @param contentHash The hash of the source file's content
+	 * @param classes The classes generated by the file
+	 * @param dependencies The internal names of the classes, generated by other source files, which this file references
+	 */
+	public record CachedFile(String contentHash, List<CachedClass> classes, Set<String> dependencies) {}
+
+	private BuildCache(String configurationHash, Map<String, CachedFile> files) {
+		this.configurationHash = configurationHash;
+		this.files = files;
+	}
+
+	/**
+	 * Reads a build cache. If the cache does not exist, cannot be read, or was built with a different configuration,
+	 * an empty cache is returned, so that all files are recompiled.
+	 *
+	 * @param path The path of the cache file
+	 * @param configuration A description of every option which affects the generated classes
+	 * @return The build cache
+	 */
+	public static BuildCache read(Path path, String configuration) {
+		String configurationHash = SignatureHasher.hashContent(configuration.getBytes(StandardCharsets.UTF_8));
+
+		if(!Files.isRegularFile(path)) return new BuildCache(configurationHash, new HashMap<>());
+
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			if(in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(configurationHash)) {
+				return new BuildCache(configurationHash, new HashMap<>());
+			}
+
+			Map<String, CachedFile> files = new HashMap<>();
+
+			int fileCount = in.readInt();
+			for(int i = 0; i < fileCount; i++) {
+				String source = in.readUTF();
+				String contentHash = in.readUTF();
+
+				List<CachedClass> classes = new ArrayList<>();
+				int classCount = in.readInt();
+				for(int j = 0; j < classCount; j++) {
+					String name = in.readUTF();
+					byte[] template = in.readNBytes(in.readInt());
+					byte[] signature = in.readNBytes(in.readInt());
+					String signatureHash = in.readUTF();
+					String classFile = in.readUTF();
+					classes.add(new CachedClass(name, template, signature, signatureHash, classFile));
+				}
+
+				Set<String> dependencies = new HashSet<>();
+				int dependencyCount = in.readInt();
+				for(int j = 0; j < dependencyCount; j++) {
+					dependencies.add(in.readUTF());
+				}
+
+				files.put(source, new CachedFile(contentHash, classes, dependencies));
+			}
+
+			return new BuildCache(configurationHash, files);
+		} catch (IOException e) {
+			// A damaged cache only means that everything is rebuilt
+			return new BuildCache(configurationHash, new HashMap<>());
+		}
+	}
+
+	/**
+	 * Writes the cache, replacing any previous cache at the path.
+	 * @param path The path of the cache file
+	 * @throws IOException If the cache could not be written
+	 */
+	public void write(Path path) throws IOException {
+		Set<String> generatedClasses = files.values().stream()
+				.flatMap(f -> f.classes().stream())
+				.map(CachedClass::name)
+				.collect(Collectors.toSet());
+
+		Path parent = path.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(configurationHash);
+
+			out.writeInt(files.size());
+			for(Map.Entry<String, CachedFile> entry : new TreeMap<>(files).entrySet()) {
+				CachedFile file = entry.getValue();
+
+				out.writeUTF(entry.getKey());
+				out.writeUTF(file.contentHash());
+
+				out.writeInt(file.classes().size());
+				for(CachedClass klass : file.classes()) {
+					out.writeUTF(klass.name());
+					out.writeInt(klass.template().length);
+					out.write(klass.template());
+					out.writeInt(klass.signature().length);
+					out.write(klass.signature());
+					out.writeUTF(klass.signatureHash());
+					out.writeUTF(klass.classFile());
+				}
+
+				// Only classes generated by this build can change, so references to anything else are not needed
+				List<String> dependencies = file.dependencies().stream().filter(generatedClasses::contains).sorted().collect(Collectors.toList());
+				out.writeInt(dependencies.size());
+				for(String dependency : dependencies) {
+					out.writeUTF(dependency);
+				}
+			}
+		}
+
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Tests if a source file's classes can be reused without recompiling it,
+	 * ignoring any changes to the files it depends on.
+	 *
+	 * @param source The path of the source file
+	 * @param contentHash The hash of the file's current content
+	 * @return If the file is unchanged, and all of its classes still exist
+	 */
+	public boolean isUpToDate(Path source, String contentHash) {
+		CachedFile file = files.get(key(source));
+		if(file == null || !file.contentHash().equals(contentHash)) return false;
+
+		return file.classes().stream().allMatch(c -> Files.isRegularFile(Path.of(c.classFile())));
+	}
+
+	/**
+	 * Removes every file from the cache which is not one of the given sources.
+	 * The class files of their classes become stale.
+	 * @param sources The source files being compiled
+	 * @return The internal names of all classes generated by the removed files
+	 */
+	public Set<String> retainFiles(Collection<Path> sources) {
+		Set<String> keys = sources.stream().map(BuildCache::key).collect(Collectors.toSet());
+
+		Set<String> removedClasses = new HashSet<>();
+
+		Iterator<Map.Entry<String, CachedFile>> iterator = files.entrySet().iterator();
+		while(iterator.hasNext()) {
+			Map.Entry<String, CachedFile> entry = iterator.next();
+			if(!keys.contains(entry.getKey())) {
+				for(CachedClass klass : entry.getValue().classes()) {
+					removedClasses.add(klass.name());
+					staleClassFiles.add(klass.classFile());
+				}
+				iterator.remove();
+			}
+		}
+		return removedClasses;
+	}
+
+	/**
+	 * Gets the templates of the classes of the given files.
+	 * @param sources The source files
+	 * @return The symbol record of each template, keyed by internal name
+	 */
+	public Map<String, byte[]> getTemplates(Collection<Path> sources) {
+		return getClasses(sources, CachedClass::template);
+	}
+
+	/**
+	 * Gets the signatures of the classes of the given files.
+	 * @param sources The source files
+	 * @return The symbol record of each signature, keyed by internal name
+	 */
+	public Map<String, byte[]> getSignatures(Collection<Path> sources) {
+		return getClasses(sources, CachedClass::signature);
+	}
+
+	private Map<String, byte[]> getClasses(Collection<Path> sources, Function<CachedClass, byte[]> representation) {
+		Map<String, byte[]> classes = new HashMap<>();
+
+		for(Path source : sources) {
+			CachedFile file = files.get(key(source));
+			if(file == null) continue;
+
+			for(CachedClass klass : file.classes()) {
+				classes.put(klass.name(), representation.apply(klass));
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * Compares the newly preprocessed classes of a file against those cached.
+	 * @param source The source file
+	 * @param signatures The symbol record of each preprocessed class, keyed by internal name
+	 * @return The internal names of all classes which were added, removed, or whose signature has changed
+	 */
+	public Set<String> getChangedClasses(Path source, Map<String, byte[]> signatures) {
+		Set<String> changed = new HashSet<>(signatures.keySet());
+
+		CachedFile file = files.get(key(source));
+		if(file == null) return changed;
+
+		for(CachedClass klass : file.classes()) {
+			byte[] signature = signatures.get(klass.name());
+
+			if(signature != null && SignatureHasher.hash(signature).equals(klass.signatureHash())) {
+				changed.remove(klass.name());
+			}
+			else {
+				changed.add(klass.name());
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Adds every class which inherits from one of the given classes, as a change to a class also changes the members its subclasses inherit,
+	 * so files which only reference a subclass must be recompiled too.
+	 *
+	 * @param classes The internal names of the changed classes
+	 * @param signatures The symbol records of the newly preprocessed classes of each file, which replace those cached for the file
+	 * @return The changed classes, and all of their subclasses generated by the build
+	 */
+	public Set<String> addSubclasses(Set<String> classes, Map<Path, Map<String, byte[]>> signatures) {
+		Set<String> preprocessed = signatures.keySet().stream().map(BuildCache::key).collect(Collectors.toSet());
+
+		Map<String, byte[]> records = new HashMap<>();
+		for(Map.Entry<String, CachedFile> entry : files.entrySet()) {
+			if(preprocessed.contains(entry.getKey())) continue;
+			entry.getValue().classes().forEach(c -> records.put(c.name(), c.signature()));
+		}
+		signatures.values().forEach(records::putAll);
+
+		Map<String, List<String>> supertypes = new HashMap<>();
+		for(Map.Entry<String, byte[]> record : records.entrySet()) {
+			ClassSymbol klass = ClassSymbol.decode(record.getValue());
+
+			List<String> direct = new ArrayList<>(klass.getInterfaces());
+			if(klass.getSuperName() != null) direct.add(klass.getSuperName());
+			supertypes.put(record.getKey(), direct);
+		}
+
+		Set<String> changed = new HashSet<>(classes);
+		boolean added = true;
+		// Repeated until no class is added, as a class may inherit through any number of generated classes
+		while(added) {
+			added = false;
+			for(Map.Entry<String, List<String>> klass : supertypes.entrySet()) {
+				if(!changed.contains(klass.getKey()) && klass.getValue().stream().anyMatch(changed::contains)) {
+					added |= changed.add(klass.getKey());
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Finds the files which reference any of the given classes.
+	 * @param sources The source files to search, in order
+	 * @param classes The internal names of the classes
+	 * @return The files which reference the classes, in the same order as given
+	 */
+	public List<Path> getDependentFiles(List<Path> sources, Set<String> classes) {
+		List<Path> dependents = new ArrayList<>();
+
+		for(Path source : sources) {
+			CachedFile file = files.get(key(source));
+			if(file == null) continue;
+
+			if(file.dependencies().stream().anyMatch(classes::contains)) {
+				dependents.add(source);
+			}
+		}
+		return dependents;
+	}
+
+	/**
+	 * Records the result of compiling a file.
+	 * The class files of any classes which the file no longer generates become stale.
+	 * @param source The source file
+	 * @param contentHash The hash of the file's content
+	 * @param templates The symbol record of each class template, keyed by internal name
+	 * @param signatures The symbol record of each preprocessed class, keyed by internal name
+	 * @param classFiles The path each class was written to, keyed by internal name
+	 * @param dependencies The internal names of all classes referenced by the generated classes
+	 */
+	public void update(Path source, String contentHash, Map<String, byte[]> templates, Map<String, byte[]> signatures, Map<String, Path> classFiles, Set<String> dependencies) {
+		List<CachedClass> classes = new ArrayList<>();
+
+		for(String name : new TreeSet<>(signatures.keySet())) {
+			byte[] signature = signatures.get(name);
+			classes.add(new CachedClass(name, templates.get(name), signature, SignatureHasher.hash(signature), classFiles.get(name).toAbsolutePath().toString()));
+		}
+
+		CachedFile previous = files.put(key(source), new CachedFile(contentHash, classes, dependencies));
+		if(previous != null) {
+			for(CachedClass klass : previous.classes()) {
+				if(!signatures.containsKey(klass.name())) staleClassFiles.add(klass.classFile());
+			}
+		}
+	}
+
+	/**
+	 * Deletes the class files of classes which are no longer generated, so that the output matches a clean build.
+	 * A class file which a class of another file now uses, as when a class moves between files, is kept.
+	 * @throws IOException If a class file could not be deleted
+	 */
+	public void deleteStaleClassFiles() throws IOException {
+		Set<String> classFiles = files.values().stream()
+				.flatMap(f -> f.classes().stream())
+				.map(CachedClass::classFile)
+				.collect(Collectors.toSet());
+
+		for(String classFile : new TreeSet<>(staleClassFiles)) {
+			if(classFiles.contains(classFile)) continue;
+			try {
+				Files.deleteIfExists(Path.of(classFile));
+			} catch (IOException e) {
+				throw new IOException("Failure deleting file '%s': %s".formatted(classFile, e.getClass().getSimpleName().replace("Exception", "")), e);
+			}
+		}
+		staleClassFiles.clear();
+	}
+
+	private static String key(Path source) {
+		return source.toAbsolutePath().normalize().toString();
+	}
+}
@@ -0,0 +1,134 @@
+package water.compiler.incremental;
+
+import org.objectweb.asm.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Collects the internal names of every class referenced by a generated class,
+ * including those only referenced through descriptors.
+ */
+public class DependencyCollector extends ClassVisitor {
+	private final Set<String> dependencies = new HashSet<>();
+
+	private DependencyCollector() {
+		super(Opcodes.ASM9);
+	}
+
+	/**
+	 * Finds all classes which a class references
+	 * @param classFile The byte[] representation of the class
+	 * @return The internal names of the referenced classes
+	 */
+	public static Set<String> collect(byte[] classFile) {
+		DependencyCollector collector = new DependencyCollector();
+		new ClassReader(classFile).accept(collector, ClassReader.SKIP_FRAMES);
+		return collector.dependencies;
+	}
+
+	@Override
+	public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+		addInternalName(superName);
+		if(interfaces != null) {
+			for(String i : interfaces) addInternalName(i);
+		}
+	}
+
+	@Override
+	public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+		addDescriptor(descriptor);
+		return null;
+	}
+
+	@Override
+	public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+		addDescriptor(descriptor);
+		return null;
+	}
+
+	@Override
+	public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+		addDescriptor(descriptor);
+		if(exceptions != null) {
+			for(String e : exceptions) addInternalName(e);
+		}
+
+		return new MethodVisitor(Opcodes.ASM9) {
+			@Override
+			public void visitTypeInsn(int opcode, String type) {
+				addInternalName(type);
+			}
+
+			@Override
+			public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+				addInternalName(owner);
+				addDescriptor(descriptor);
+			}
+
+			@Override
+			public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+				addInternalName(owner);
+				addDescriptor(descriptor);
+			}
+
+			@Override
+			public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+				addDescriptor(descriptor);
+				addConstant(bootstrapMethodHandle);
+				for(Object argument : bootstrapMethodArguments) addConstant(argument);
+			}
+
+			@Override
+			public void visitLdcInsn(Object value) {
+				addConstant(value);
+			}
+
+			@Override
+			public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+				addDescriptor(descriptor);
+			}
+
+			@Override
+			public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+				addInternalName(type);
+			}
+
+			@Override
+			public void visitLocalVariable(String name, String descriptor, String signature, Label start, Label end, int index) {
+				addDescriptor(descriptor);
+			}
+		};
+	}
+
+	private void addConstant(Object constant) {
+		if(constant instanceof Type type) {
+			addType(type);
+		}
+		else if(constant instanceof Handle handle) {
+			addInternalName(handle.getOwner());
+			addDescriptor(handle.getDesc());
+		}
+	}
+
+	private void addInternalName(String internalName) {
+		if(internalName == null) return;
+		if(internalName.startsWith("[")) addDescriptor(internalName);
+		else dependencies.add(internalName);
+	}
+
+	private void addDescriptor(String descriptor) {
+		addType(descriptor.startsWith("(") ? Type.getMethodType(descriptor) : Type.getType(descriptor));
+	}
+
+	private void addType(Type type) {
+		switch (type.getSort()) {
+			case Type.ARRAY -> addType(type.getElementType());
+			case Type.OBJECT -> dependencies.add(type.getInternalName());
+			case Type.METHOD -> {
+				for(Type argument : type.getArgumentTypes()) addType(argument);
+				addType(type.getReturnType());
+			}
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package water.compiler.incremental;
+
+import org.objectweb.asm.Opcodes;
+import water.compiler.symbol.ClassSymbol;
+import water.compiler.symbol.FieldSymbol;
+import water.compiler.symbol.MethodSymbol;
+import water.compiler.util.WaterType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Produces a hash of the signature of a class which is visible to other files -
+ * its declaration, and all non-private fields and methods, including their nullability.
+ *
+ * Two classes with the same hash can be used interchangeably by any file referencing them.
+ */
+public class SignatureHasher {
+	private final MessageDigest digest;
+
+	private SignatureHasher(MessageDigest digest) {
+		this.digest = digest;
+	}
+
+	/**
+	 * Hashes the signature of a class
+	 * @param record The symbol record of the class
+	 * @return The hex encoded hash
+	 */
+	public static String hash(byte[] record) {
+		MessageDigest digest = newDigest();
+		new SignatureHasher(digest).hashClass(ClassSymbol.decode(record));
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	/**
+	 * Hashes the contents of a file
+	 * @param content The content of the file
+	 * @return The hex encoded hash
+	 */
+	public static String hashContent(byte[] content) {
+		return HexFormat.of().formatHex(newDigest().digest(content));
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+		}
+	}
+
+	private void hashClass(ClassSymbol klass) {
+		update("class", klass.getAccess(), klass.getName(), klass.getSuperName(), String.join(",", klass.getInterfaces()), klass.getSimpleName());
+
+		for(FieldSymbol field : klass.getDeclaredFields()) {
+			if((field.access() & Opcodes.ACC_PRIVATE) != 0) continue;
+			update("field", field.access(), field.name(), field.descriptor(), field.type());
+		}
+
+		for(MethodSymbol constructor : klass.getDeclaredConstructors()) {
+			hashMethod(constructor);
+		}
+		for(MethodSymbol method : klass.getDeclaredMethods()) {
+			hashMethod(method);
+		}
+	}
+
+	private void hashMethod(MethodSymbol method) {
+		if(method.isPrivate()) return;
+
+		// The types of a method hold the nullability of its return type and parameters
+		update("method", method.access(), method.name(), method.descriptor(), method.type().getReturnType());
+		for(WaterType parameter : method.type().getArgumentTypes()) {
+			update("parameter", parameter);
+		}
+	}
+
+	private void update(Object... values) {
+		for(Object value : values) {
+			digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+	}
+}
@@ -1,6 +1,5 @@
 package water.compiler.lexer;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,33 +17,37 @@ public class Lexer {
 	private int column;
 	private int start;
 	private char current;
-	private String text;
+	private char[] text;
+	private TokenStream tokens;
 
 	/**
-	 * Takes in a source string, and produces a list of tokens.
-	 *
+	 * Takes in a source string, and produces its tokens.
+	 * The source is lexed as the tokens are read, rather than all at once.
 	 *
 	 * @param text The source of a water program
-	 * @return A list of tokens
+	 * @return The tokens of the source
 	 */
-	public List<Token> lex(String text) {
-		this.text = text;
+	public TokenStream lex(String text) {
+		this.text = text.toCharArray();
 
 		this.start = 0;
 		this.index = 0;
 		this.line = 1;
 		this.column = 0;
-		this.current = text.charAt(0);
 
-		ArrayList<Token> tokens = new ArrayList<>();
+		this.tokens = new TokenStream(this.text, this);
+		return tokens;
+	}
 
+	/**
+	 * Adds the next token of the source to the stream, which is EOF once the source has been consumed.
+	 */
+	void scanToken() {
 		while(!isAtEnd()) {
 			start = index;
 
 			advance();
 
-			Token token;
-
 			if(isWhitespace(current)) {
 				if (current == '\n') {
 					line++;
@@ -52,16 +55,16 @@ public class Lexer {
 				}
 				continue;
 			}
-			else if(current == '/' && (!isAtEnd() && text.charAt(index) == '/')) {
+			else if(current == '/' && (!isAtEnd() && text[index] == '/')) {
 				do {
 					advance();
 				} while(!isAtEnd() && current != '\n');
 				line++;
 				continue;
 			}
-			else if(current == '/' && (!isAtEnd() && text.charAt(index) == '*')) {
-				while(true) {
-					if(current == '*' && (!isAtEnd() && text.charAt(index) == '/')) {
+			else if(current == '/' && (!isAtEnd() && text[index] == '*')) {
+				while(!isAtEnd()) {
+					if(current == '*' && text[index] == '/') {
 						advance();
 						break;
 					}
@@ -71,16 +74,16 @@ public class Lexer {
 				continue;
 			}
 			else if(isValidIdentifierStart(current)) {
-				token = identifier();
+				identifier();
 			}
 			else if(isNumeric(current)) {
-				token = number();
+				number();
 			}
 			else if(current == '"') {
-				token = string();
+				string();
 			}
 			else if(current == '\'') {
-				token = character();
+				character();
 			}
 			else {
 				TokenType type = switch (current) {
@@ -110,14 +113,11 @@ public class Lexer {
 					case '?' -> question();
 					default -> TokenType.ERROR;
 				};
-				token = makeToken(type);
+				makeToken(type);
 			}
-
-			tokens.add(token);
+			return;
 		}
-		tokens.add(makeToken(TokenType.EOF));
-
-		return tokens;
+		makeToken(TokenType.EOF);
 	}
 
 	/** Matches against different token types which begin with '?' */
@@ -157,9 +157,8 @@ public class Lexer {
 
 	/**
 	 * Consumes a string, surrounded by double-quotes (").
-	 * @return The consumed tokens.
 	 */
-	private Token string() {
+	private void string() {
 		advance();
 
 		boolean escape = false;
@@ -173,14 +172,13 @@ public class Lexer {
 			advance();
 		}
 
-		return makeToken(TokenType.STRING);
+		makeToken(TokenType.STRING);
 	}
 
 	/**
 	 * Consumes a character literal
-	 * @return The character token
 	 */
-	private Token character() {
+	private void character() {
 		advance();
 
 		boolean escape = false;
@@ -194,23 +192,23 @@ public class Lexer {
 			advance();
 		}
 
-		return makeToken(TokenType.CHAR_LITERAL);
+		makeToken(TokenType.CHAR_LITERAL);
 	}
 
 	/**
-	 * Consumes a single identifier, returning a token with a type of either IDENTIFIER or the corresponding keyword.
+	 * Consumes a single identifier, producing a token with a type of either IDENTIFIER or the corresponding keyword.
 	 * A identifier is valid if it starts with {@link #isValidIdentifierStart(char)}
 	 * and all following chars are correct, as defined by {@link #isValidIdentifierPart(char)}
-	 * @return The consumed identifier token.
 	 */
-	private Token identifier() {
+	private void identifier() {
 		while(!isAtEnd() && isValidIdentifierPart(current)) {
 			advance();
 		}
 		if(!isAtEnd()) index--;
-		String val = text.substring(start, index);
+		// Interned, so that the keyword match does not copy the name of every identifier
+		String val = tokens.intern(start, index);
 
-		return makeToken(switch (val) {
+		makeToken(switch (val) {
 			case "import" -> TokenType.IMPORT;
 			case "package" -> TokenType.PACKAGE;
 			case "function" -> TokenType.FUNCTION;
@@ -255,16 +253,16 @@ public class Lexer {
 
 	/**
 	 * Consumes a number, in form (regex): [0-9]+(\.[0-9]+)?f?
-	 * @return The consumed token
 	 */
-	private Token number() {
+	private void number() {
 		while (!isAtEnd() && isNumeric(current)) {
 			advance();
 		}
 		if(!isAtEnd()) index--;
 		if(current == 'l' || current == 'L') {
 			advance();
-			return makeToken(TokenType.NUMBER);
+			makeToken(TokenType.NUMBER);
+			return;
 		}
 		if(match('.')) {
 			advance();
@@ -274,7 +272,7 @@ public class Lexer {
 			if(!isAtEnd()) index--;
 		}
 		if(current == 'f' || current == 'F') advance();
-		return makeToken(TokenType.NUMBER);
+		makeToken(TokenType.NUMBER);
 	}
 
 	/**
@@ -292,7 +290,7 @@ public class Lexer {
 	 * @return If a consumption occurred
 	 */
 	private boolean next(char c) {
-		return text.charAt(index) == c && advance() != -1;
+		return !isAtEnd() && text[index] == c && advance() != -1;
 	}
 
 	/**
@@ -300,7 +298,7 @@ public class Lexer {
 	 * @return If at EOF
 	 */
 	private boolean isAtEnd() {
-		return index == text.length();
+		return index == text.length;
 	}
 
 	/**
@@ -308,18 +306,17 @@ public class Lexer {
 	 * @return The consumed character.
 	 */
 	private char advance() {
-		current = text.charAt(index);
+		current = text[index];
 		column++;
-		return text.charAt(index++);
+		return text[index++];
 	}
 
 	/**
-	 * Create a token, from the end of the last one (without whitespace) to the current position, with the correct type.
+	 * Add a token, from the end of the last one (without whitespace) to the current position, with the correct type.
 	 * @param type The token type.
-	 * @return The created token.
 	 */
-	private Token makeToken(TokenType type) {
-		return new Token(type, text.substring(start, index), line, column);
+	private void makeToken(TokenType type) {
+		tokens.add(type, start, index, line, column);
 	}
 
 	/**
@@ -0,0 +1,152 @@
+package water.compiler.lexer;
+
+import java.util.Arrays;
+
+/**
+ * The tokens of a source, produced by a {@link Lexer} as they are needed by the {@link water.compiler.parser.Parser}.
+ *
+ * Tokens are stored as their type, position in the source, line, and column, in primitive arrays,
+ * rather than as one object (and copy of their text) each. A {@link Token} is only created when asked for,
+ * with the text of identifiers, keywords, and symbols interned, so that each distinct name is only held once.
+ */
+public class TokenStream {
+	private static final TokenType[] TYPES = TokenType.values();
+	private static final int INITIAL_CAPACITY = 256;
+
+	private final char[] source;
+	/** The lexer producing further tokens, or null once the EOF token has been produced */
+	private Lexer lexer;
+
+	private int count;
+	private byte[] types = new byte[INITIAL_CAPACITY];
+	private int[] starts = new int[INITIAL_CAPACITY];
+	private int[] lengths = new int[INITIAL_CAPACITY];
+	private int[] lines = new int[INITIAL_CAPACITY];
+	private int[] columns = new int[INITIAL_CAPACITY];
+
+	/** Open addressing table of interned token text */
+	private String[] interned = new String[INITIAL_CAPACITY];
+	private int internedCount;
+
+	TokenStream(char[] source, Lexer lexer) {
+		this.source = source;
+		this.lexer = lexer;
+	}
+
+	/**
+	 * Gets the type of a token, without creating the token.
+	 * @param index The index of the token
+	 * @return The type of the token
+	 */
+	public TokenType getType(int index) {
+		fill(index);
+		return TYPES[types[index]];
+	}
+
+	/**
+	 * Creates a token.
+	 * @param index The index of the token
+	 * @return The token
+	 */
+	public Token get(int index) {
+		fill(index);
+
+		TokenType type = TYPES[types[index]];
+		int start = starts[index];
+		int end = start + lengths[index];
+
+		// String literals are rarely repeated, and may be large
+		String value = type == TokenType.STRING ? new String(source, start, end - start) : intern(start, end);
+
+		return new Token(type, value, lines[index], columns[index]);
+	}
+
+	/**
+	 * Lexes the remainder of the source now, rather than as tokens are read.
+	 */
+	public void lexAll() {
+		while(lexer != null) {
+			lexer.scanToken();
+		}
+	}
+
+	private void fill(int index) {
+		while(index >= count && lexer != null) {
+			lexer.scanToken();
+		}
+		if(index >= count) throw new IndexOutOfBoundsException("Token %d is after the end of the source".formatted(index));
+	}
+
+	/**
+	 * Adds the next token of the source.
+	 * @param type The type of the token
+	 * @param start The index in the source of the first character of the token
+	 * @param end The index in the source after the last character of the token
+	 * @param line The line of the token
+	 * @param column The column of the token
+	 */
+	void add(TokenType type, int start, int end, int line, int column) {
+		if(count == types.length) {
+			int capacity = count * 2;
+			types = Arrays.copyOf(types, capacity);
+			starts = Arrays.copyOf(starts, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			lines = Arrays.copyOf(lines, capacity);
+			columns = Arrays.copyOf(columns, capacity);
+		}
+		types[count] = (byte) type.ordinal();
+		starts[count] = start;
+		lengths[count] = end - start;
+		lines[count] = line;
+		columns[count] = column;
+		count++;
+
+		if(type == TokenType.EOF) lexer = null;
+	}
+
+	/**
+	 * Gets the single instance of some text of the source, creating it if this is the first time it is needed.
+	 * @param start The index of the first character of the text
+	 * @param end The index after the last character of the text
+	 * @return The text
+	 */
+	String intern(int start, int end) {
+		int hash = 0;
+		for(int i = start; i < end; i++) {
+			hash = 31 * hash + source[i];
+		}
+
+		int mask = interned.length - 1;
+		for(int slot = hash & mask; ; slot = (slot + 1) & mask) {
+			String candidate = interned[slot];
+			if(candidate == null) {
+				String text = new String(source, start, end - start);
+				interned[slot] = text;
+				if(++internedCount * 2 > interned.length) rehash();
+				return text;
+			}
+			if(candidate.hashCode() == hash && matches(candidate, start, end)) return candidate;
+		}
+	}
+
+	private boolean matches(String candidate, int start, int end) {
+		if(candidate.length() != end - start) return false;
+		for(int i = 0; i < candidate.length(); i++) {
+			if(candidate.charAt(i) != source[start + i]) return false;
+		}
+		return true;
+	}
+
+	private void rehash() {
+		String[] previous = interned;
+		interned = new String[previous.length * 2];
+		int mask = interned.length - 1;
+
+		for(String text : previous) {
+			if(text == null) continue;
+			int slot = text.hashCode() & mask;
+			while(interned[slot] != null) slot = (slot + 1) & mask;
+			interned[slot] = text;
+		}
+	}
+}
@@ -1,8 +1,8 @@
 package water.compiler.parser;
 
 import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.util.WaterType;
 
@@ -14,8 +14,13 @@ public interface Node {
 	void visit(FileContext context) throws SemanticException;
 	/** Create outlining for template class */
 	default void preprocess(Context context) throws SemanticException { }
-	/** The type which this node will produce */
-	default WaterType getReturnType(Context context) throws SemanticException { return WaterType.VOID_TYPE; }
+	/** The type which this node will produce. This is computed once within each scope, and then reused */
+	default WaterType getReturnType(Context context) throws SemanticException {
+		if(context.getScope() == null) return computeReturnType(context);
+		return context.getScope().getNodeType(this, context);
+	}
+	/** Computes the type which this node will produce - {@link #getReturnType(Context)} should be used instead, which caches this */
+	default WaterType computeReturnType(Context context) throws SemanticException { return WaterType.VOID_TYPE; }
 	/** Returns a constant value for use in optimisations. Only needs to be implemented if isConstant can return true */
 	default Object getConstantValue(Context context) throws SemanticException { return null; }
 	/** If the node can be transformed to a constant value for optimisation */
@@ -2,6 +2,7 @@ package water.compiler.parser;
 
 import water.compiler.lexer.Lexer;
 import water.compiler.lexer.Token;
+import water.compiler.lexer.TokenStream;
 import water.compiler.lexer.TokenType;
 import water.compiler.parser.nodes.block.BlockNode;
 import water.compiler.parser.nodes.block.ProgramNode;
@@ -27,7 +28,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 /**
- * Creates a syntax tree based from a list of tokens.
+ * Creates a syntax tree based from a stream of tokens.
  *
  * This syntax tree is not abstract as the nodes encode how they should be compiled,
  * however the term AST may be used throughout.
@@ -36,16 +37,16 @@ import java.util.List;
 public class Parser {
 
 	private int index;
-	private List<Token> tokens;
+	private TokenStream tokens;
 	private boolean isParsingClass;
 
 	/**
 	 * Produces a syntax tree based on tokens outputted by {@link Lexer}.
-	 * @param tokens A list of tokens produced from source code.
+	 * @param tokens The tokens of the source code, which are only created as they are needed.
 	 * @return An AST
 	 * @throws UnexpectedTokenException If a parser error occurs, i.e. a token which does not grammatically make sense.
 	 */
-	public Node parse(List<Token> tokens) throws UnexpectedTokenException {
+	public Node parse(TokenStream tokens) throws UnexpectedTokenException {
 		this.tokens = tokens;
 		this.index = 0;
 		this.isParsingClass = false;
@@ -214,7 +215,7 @@ public class Parser {
 
 		boolean wasParsingClass = isParsingClass;
 		isParsingClass = true;
-		while(!isAtEnd() && tokens.get(index).getType() != TokenType.RBRACE) {
+		while(!isAtEnd() && tokens.getType(index) != TokenType.RBRACE) {
 			declarations.add(declaration());
 		}
 		isParsingClass = wasParsingClass;
@@ -233,7 +234,7 @@ public class Parser {
 
 		ArrayList<Token> fields = new ArrayList<>();
 
-		if(tokens.get(index).getType() != TokenType.RBRACE) {
+		if(tokens.getType(index) != TokenType.RBRACE) {
 			do {
 				fields.add(consume(TokenType.IDENTIFIER, "Expected enum field name"));
 			} while (!isAtEnd() && match(TokenType.COMMA));
@@ -273,11 +274,11 @@ public class Parser {
 	/** Forms grammar: '{' statement* '}'*/
 	private Node blockStatement() throws UnexpectedTokenException {
 		ArrayList<Node> nodes = new ArrayList<>();
-		if(tokens.get(index).getType() != TokenType.RBRACE) {
+		if(tokens.getType(index) != TokenType.RBRACE) {
 			do {
 				if(match(TokenType.VAR) || match(TokenType.CONST)) nodes.add(variableDeclaration(null, null));
 				else nodes.add(statement());
-			} while (!isAtEnd() && tokens.get(index).getType() != TokenType.RBRACE);
+			} while (!isAtEnd() && tokens.getType(index) != TokenType.RBRACE);
 		}
 
 		consume(TokenType.RBRACE, "Expected '}' after block");
@@ -295,7 +296,7 @@ public class Parser {
 	private Node returnStatement() throws UnexpectedTokenException {
 		Token returnTok = consume(TokenType.RETURN, "Expected 'return'");
 		Node expression = null;
-		if(tokens.get(index).getType() != TokenType.SEMI) {
+		if(tokens.getType(index) != TokenType.SEMI) {
 			expression = expression();
 		}
 		consume(TokenType.SEMI, "Expected ';' after return");
@@ -421,8 +422,8 @@ public class Parser {
 
 	/** Forms grammar: blockStatement | ifStatement | whileStatement | forStatement | returnStatement | throwStatement | tryStatement | expressionStatement */
 	private Node statement() throws UnexpectedTokenException {
-		return switch (tokens.get(index).getType()) {
-			case LBRACE -> { advance(); yield blockStatement(); }
+		return switch (tokens.getType(index)) {
+			case LBRACE -> { index++; yield blockStatement(); }
 			case IF -> ifStatement();
 			case WHILE -> whileStatement();
 			case FOR -> forStatement();
@@ -436,216 +437,92 @@ public class Parser {
 	//============================ Expressions =============================
 
 	/*
-	Precedence:
-	assignExpr = += (etc)
-	logicalNullExpr ??
-	logicalOrExpr ||
-	logicalAndExpr &&
-	bitwiseOrExpr |
-	bitwiseXorExpr ^
-	bitwiseAndExpr &
-	equalityExpr == != === !==
-	relativeExpr < <= > >=
-	shiftExpr << >> >>>
-	arithExpr + -
-	term * / %
-	atom (value)
+	Precedence (binding power):
+	1  = += (etc)
+	2  ??
+	3  ||
+	4  &&
+	5  |
+	6  ^
+	7  &
+	8  == != === !==
+	9  < <= > >= instanceof
+	10 << >> >>>
+	11 + -
+	12 * / %
+	13 as
+	unary, memberAccess, atom (value)
 	 */
 
-	/** Wrapper around the lowest precedence expression type */
-	private Node expression() throws UnexpectedTokenException {
-		return assignExpr();
-	}
-
-	/** Forms grammar: logicalNullExpr (('=' | INPLACE_OPERATOR) logicalNullExpr)* */
-	private Node assignExpr() throws UnexpectedTokenException {
-		Node left = logicalNullExpr();
-
-		while(matchAssignment()) {
-			Token op = tokens.get(index - 1);
-
-			Node right = logicalNullExpr();
+	/** The binding power of each binary operator, indexed by ordinal, with 0 for tokens which are not binary operators */
+	private static final int[] BINDING_POWER = new int[TokenType.values().length];
 
-			left = new AssignmentNode(left, op, right);
-		}
-
-		return left;
+	static {
+		bind(1, TokenType.EQUALS, TokenType.IN_PLUS, TokenType.IN_MINUS, TokenType.IN_MUL, TokenType.IN_DIV, TokenType.IN_MOD,
+				TokenType.IN_BITWISE_AND, TokenType.IN_BITWISE_OR, TokenType.IN_BITWISE_XOR,
+				TokenType.IN_BITWISE_SHL, TokenType.IN_BITWISE_SHR, TokenType.IN_BITWISE_USHR);
+		bind(2, TokenType.QUESTION_QUESTION);
+		bind(3, TokenType.LOGICAL_OR);
+		bind(4, TokenType.LOGICAL_AND);
+		bind(5, TokenType.BITWISE_OR);
+		bind(6, TokenType.BITWISE_XOR);
+		bind(7, TokenType.BITWISE_AND);
+		bind(8, TokenType.EQEQ, TokenType.EXEQ, TokenType.TRI_EQ, TokenType.TRI_EXEQ);
+		bind(9, TokenType.LESS, TokenType.LESS_EQ, TokenType.GREATER, TokenType.GREATER_EQ, TokenType.INSTANCEOF);
+		bind(10, TokenType.BITWISE_SHL, TokenType.BITWISE_SHR, TokenType.BITWISE_USHR);
+		bind(11, TokenType.PLUS, TokenType.MINUS);
+		bind(12, TokenType.STAR, TokenType.SLASH, TokenType.PERCENT);
+		bind(13, TokenType.AS);
 	}
 
-	/** Forms grammar: logicalOrExpr ('??' logicalOrExpr)* */
-	private Node logicalNullExpr() throws UnexpectedTokenException {
-		Node left = logicalOrExpr();
-
-		while(match(TokenType.QUESTION_QUESTION)) {
-			Token op = tokens.get(index - 1);
-
-			Node right = logicalOrExpr();
-
-			left = new LogicalNullOperatorNode(left, op, right);
+	private static void bind(int power, TokenType... types) {
+		for(TokenType type : types) {
+			BINDING_POWER[type.ordinal()] = power;
 		}
-		return left;
 	}
 
-	/** Forms grammar: logicalAndExpr ('||' logicalAndExpr)* */
-	private Node logicalOrExpr() throws UnexpectedTokenException {
-		Node left = logicalAndExpr();
-
-		while(match(TokenType.LOGICAL_OR)) {
-			Token op = tokens.get(index - 1);
-
-			Node right = logicalAndExpr();
-
-			left = new LogicalOperationNode(left, op, right);
-		}
-		return left;
-	}
-
-	/** Forms grammar: bitwiseOrExpr ('&&' bitwiseOrExpr)* */
-	private Node logicalAndExpr() throws UnexpectedTokenException {
-		Node left = bitwiseOrExpr();
-
-		while(match(TokenType.LOGICAL_AND)) {
-			Token op = tokens.get(index - 1);
-
-			Node right = bitwiseOrExpr();
-
-			left = new LogicalOperationNode(left, op, right);
-		}
-		return left;
-	}
-
-	/** Forms grammar: bitwiseXorExpr ('|' bitwiseXorExpr)* */
-	private Node bitwiseOrExpr() throws UnexpectedTokenException {
-		Node left = bitwiseXorExpr();
-
-		while(match(TokenType.BITWISE_OR)) {
-			Token op = tokens.get(index - 1);
-
-			Node right = bitwiseXorExpr();
-
-			left = new IntegerOperationNode(left, op, right);
-		}
-		return left;
-	}
-
-	/** Forms grammar: bitwiseAndExpr ('^' bitwiseAndExpr)* */
-	private Node bitwiseXorExpr() throws UnexpectedTokenException {
-		Node left = bitwiseAndExpr();
-
-		while(match(TokenType.BITWISE_XOR)) {
-			Token op = tokens.get(index - 1);
-
-			Node right = bitwiseAndExpr();
-
-			left = new IntegerOperationNode(left, op, right);
-		}
-		return left;
-	}
-
-	/** Forms grammar: equalityExpr ('&' equalityExpr)* */
-	private Node bitwiseAndExpr() throws UnexpectedTokenException {
-		Node left = equalityExpr();
-
-		while(match(TokenType.BITWISE_AND)) {
-			Token op = tokens.get(index - 1);
-
-			Node right = equalityExpr();
-
-			left = new IntegerOperationNode(left, op, right);
-		}
-		return left;
-	}
-
-	/** Forms grammar: relativeExpr (('==' | '!=' | '===' | '!==') relativeExpr)* */
-	private Node equalityExpr() throws UnexpectedTokenException {
-		Node left = relativeExpr();
-
-		while(match(TokenType.EQEQ) || match(TokenType.EXEQ) || match(TokenType.TRI_EQ) || match(TokenType.TRI_EXEQ)) {
-			Token op = tokens.get(index - 1);
-
-			Node right = relativeExpr();
-
-			left = new EqualityOperationNode(left, op, right);
-		}
-		return left;
-	}
-
-	/** Forms grammar: shiftExpr (({@literal '<' | '<=' | '>' | '>=' | 'instanceof'}) shiftExpr)* */
-	private Node relativeExpr() throws UnexpectedTokenException {
-		Node left = shiftExpr();
-
-		while(match(TokenType.LESS) || match(TokenType.LESS_EQ) || match(TokenType.GREATER) || match(TokenType.GREATER_EQ)
-			|| match(TokenType.INSTANCEOF)) {
-			Token op = tokens.get(index - 1);
-
-			if(op.getType() == TokenType.INSTANCEOF) {
-				Node right = type();
-
-				left = new InstanceOfNode(left, op, right);
-			}
-			else {
-				Node right = shiftExpr();
-
-				left = new RelativeOperationNode(left, op, right);
-			}
-		}
-		return left;
-	}
-
-	/** Forms grammar: arithExpr (({@literal '<<' | '>>' | '>>>'}) arithExpr)* */
-	private Node shiftExpr() throws UnexpectedTokenException {
-		Node left = arithExpr();
-
-		while(match(TokenType.BITWISE_SHL) || match(TokenType.BITWISE_SHR) || match(TokenType.BITWISE_USHR)) {
-			Token op = tokens.get(index - 1);
-
-			Node right = arithExpr();
-
-			left = new IntegerOperationNode(left, op, right);
-		}
-		return left;
+	/** Wrapper around the lowest precedence expression type */
+	private Node expression() throws UnexpectedTokenException {
+		return expression(1);
 	}
 
-	/** Forms grammar: term (('+' | '-') term)* */
-	private Node arithExpr() throws UnexpectedTokenException {
-		Node left = term();
+	/**
+	 * Parses an expression whose binary operators bind at least as tightly as the given power.
+	 * All binary operators are left associative, so the right operand of each only contains operators which bind tighter.
+	 *
+	 * Forms grammar: unary (BINARY_OPERATOR (unary | type))*
+	 * @param minimumPower The lowest binding power of an operator which is part of this expression
+	 */
+	private Node expression(int minimumPower) throws UnexpectedTokenException {
+		Node left = unary();
 
-		while(match(TokenType.PLUS) || match(TokenType.MINUS)) {
-			Token op = tokens.get(index - 1);
+		while(true) {
+			int power = BINDING_POWER[tokens.getType(index).ordinal()];
+			if(power == 0 || power < minimumPower) break;
 
-			Node right = term();
+			Token op = advance();
 
-			left = new ArithmeticOperationNode(left, op, right);
+			left = switch (op.getType()) {
+				case AS -> new CastNode(left, type(), op);
+				case INSTANCEOF -> new InstanceOfNode(left, op, type());
+				default -> binaryOperation(left, op, expression(power + 1));
+			};
 		}
-		return left;
-	}
-
-	/** Forms grammar: cast (('*' | '/' | '%') cast)* */
-	private Node term() throws UnexpectedTokenException {
-		Node left = cast();
-
-		while(match(TokenType.STAR) || match(TokenType.SLASH) || match(TokenType.PERCENT)) {
-			Token op = tokens.get(index - 1);
 
-			Node right = cast();
-
-			left = new ArithmeticOperationNode(left, op, right);
-		}
 		return left;
 	}
 
-	/** Forms grammar: unary ('as' type)* */
-	private Node cast() throws UnexpectedTokenException {
-		Node left = unary();
-
-		while(match(TokenType.AS)) {
-			Token as = tokens.get(index - 1);
-			Node type = type();
-
-			left = new CastNode(left, type, as);
-		}
-
-		return left;
+	/** Creates the node of a binary operator, other than 'as' and 'instanceof' */
+	private Node binaryOperation(Node left, Token op, Node right) {
+		return switch (op.getType()) {
+			case QUESTION_QUESTION -> new LogicalNullOperatorNode(left, op, right);
+			case LOGICAL_OR, LOGICAL_AND -> new LogicalOperationNode(left, op, right);
+			case BITWISE_OR, BITWISE_XOR, BITWISE_AND, BITWISE_SHL, BITWISE_SHR, BITWISE_USHR -> new IntegerOperationNode(left, op, right);
+			case EQEQ, EXEQ, TRI_EQ, TRI_EXEQ -> new EqualityOperationNode(left, op, right);
+			case LESS, LESS_EQ, GREATER, GREATER_EQ -> new RelativeOperationNode(left, op, right);
+			case PLUS, MINUS, STAR, SLASH, PERCENT -> new ArithmeticOperationNode(left, op, right);
+			default -> new AssignmentNode(left, op, right);
+		};
 	}
 
 	/** Forms grammar: ('++' | '--') ('!' | '-') unary | memberAccess */
@@ -695,7 +572,7 @@ public class Parser {
 			boolean nullable = tokens.get(index - 1).getType() == TokenType.QUESTION_DOT;
 			Token name = consume(TokenType.IDENTIFIER, "Expected member name");
 
-			if(tokens.get(index).getType() == TokenType.LPAREN) {
+			if(tokens.getType(index) == TokenType.LPAREN) {
 				List<Node> args = arguments("method arguments");
 
 				left = nullable ? new NullableMethodCallNode(left, name, args, false) : new MethodCallNode(left, name, args, false);
@@ -769,7 +646,7 @@ public class Parser {
 	private ArrayConstructorNode.InitValue arrayInitializeDimension(int dimension) throws UnexpectedTokenException {
 		ArrayConstructorNode.InitValue valueList = new ArrayConstructorNode.InitValue(new ArrayList<>());
 
-		if(tokens.get(index).getType() != TokenType.RBRACE) {
+		if(tokens.getType(index) != TokenType.RBRACE) {
 			do {
 				if(dimension == 1) {
 					valueList.subValues.add(new ArrayConstructorNode.InitValue(expression()));
@@ -796,7 +673,7 @@ public class Parser {
 	private Node variable() throws UnexpectedTokenException {
 		Token name = tokens.get(index - 1);
 
-		if(tokens.get(index).getType() == TokenType.LPAREN) {
+		if(tokens.getType(index) == TokenType.LPAREN) {
 			List<Node> args = arguments("function arguments");
 
 			return new FunctionCallNode(name, args);
@@ -852,7 +729,7 @@ public class Parser {
 	}
 
 	private TypeNode basicType() throws UnexpectedTokenException {
-		if(Lexer.PRIMITIVE_TYPES.contains(tokens.get(index).getType())) {
+		if(Lexer.PRIMITIVE_TYPES.contains(tokens.getType(index))) {
 			return new TypeNode(advance());
 		}
 		else {
@@ -875,7 +752,7 @@ public class Parser {
 	private List<Pair<Token, Node>> typedParameters(String name) throws UnexpectedTokenException {
 		consume(TokenType.LPAREN, "Expected '(' before " + name);
 		ArrayList<Pair<Token, Node>> parameters = new ArrayList<>();
-		if(tokens.get(index).getType() != TokenType.RPAREN) {
+		if(tokens.getType(index) != TokenType.RPAREN) {
 			do {
 				Token parameterName = consume(TokenType.IDENTIFIER, "Expected parameter name");
 
@@ -896,7 +773,7 @@ public class Parser {
 		consume(TokenType.LPAREN, "Expected '(' before " + name);
 
 		ArrayList<Node> args = new ArrayList<>();
-		if(tokens.get(index).getType() != TokenType.RPAREN) {
+		if(tokens.getType(index) != TokenType.RPAREN) {
 			do {
 				args.add(expression());
 			} while (!isAtEnd() && match(TokenType.COMMA));
@@ -909,31 +786,19 @@ public class Parser {
 
 	//============================ Helpers =============================
 
-	private boolean matchAssignment() {
-		switch (tokens.get(index).getType()) {
-			case EQUALS, IN_PLUS, IN_MINUS, IN_MUL, IN_DIV, IN_MOD,
-					IN_BITWISE_AND, IN_BITWISE_OR, IN_BITWISE_XOR, IN_BITWISE_SHL, IN_BITWISE_SHR, IN_BITWISE_USHR -> {
-				advance();
-				return true;
-			}
-		}
-		return false;
-	}
-
 	private boolean match(TokenType type) {
-		if(tokens.get(index).getType() != type) return false;
-		advance();
+		if(tokens.getType(index) != type) return false;
+		index++;
 		return true;
 	}
 
 	private Token consume(TokenType type, String message) throws UnexpectedTokenException {
-		Token tok = tokens.get(index);
-		if(tok.getType() != type) throw new UnexpectedTokenException(tok, message);
+		if(tokens.getType(index) != type) throw new UnexpectedTokenException(tokens.get(index), message);
 		return advance();
 	}
 
 	private boolean isAtEnd() {
-		return tokens.get(index).getType() == TokenType.EOF;
+		return tokens.getType(index) == TokenType.EOF;
 	}
 
 	private Token advance() {
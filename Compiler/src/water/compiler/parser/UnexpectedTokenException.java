@@ -16,6 +16,10 @@ public class UnexpectedTokenException extends Exception {
 		this.message = message;
 	}
 
+	public Token getToken() {
+		return token;
+	}
+
 	public String getErrorMessage(String filename) {
 		if(token.getType() == TokenType.EOF) return "[%s:%s:%s] Unexpected EOF: %s".formatted(filename, token.getLine(), token.getColumn(), message);
 
@@ -1,6 +1,6 @@
 package water.compiler.parser.nodes.block;
 
-import water.compiler.FileContext;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.Scope;
 import water.compiler.compiler.SemanticException;
 import water.compiler.parser.Node;
@@ -1,16 +1,15 @@
 package water.compiler.parser.nodes.block;
 
-import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
 import water.compiler.compiler.ContextType;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.parser.Node;
 import water.compiler.parser.nodes.classes.ClassDeclarationNode;
 import water.compiler.parser.nodes.variable.VariableDeclarationNode;
-import water.compiler.util.WaterClassWriter;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -41,7 +40,7 @@ public class ProgramNode implements Node {
 
 		standaloneClass = declarations.stream().filter(n -> !n.isNewClass()).toArray().length != 0;
 
-		ClassWriter writer = null;
+		ClassVisitor writer = null;
 
 		if(standaloneClass) {
 			writer = initClass(name, context);
@@ -66,7 +65,7 @@ public class ProgramNode implements Node {
 
 		standaloneClass = declarations.stream().filter(n -> !n.isNewClass()).toArray().length != 0;
 
-		ClassWriter writer = null;
+		ClassVisitor writer = null;
 
 		if(standaloneClass) {
 			writer = initClass(name, context);
@@ -94,7 +93,7 @@ public class ProgramNode implements Node {
 
 	@Override
 	public void visit(FileContext context) throws SemanticException {
-		ClassWriter writer = null;
+		ClassVisitor writer = null;
 		MethodVisitor staticMethod = null;
 		if(standaloneClass) {
 			String source = context.getContext().getSource();
@@ -125,7 +124,7 @@ public class ProgramNode implements Node {
 		}
 	}
 
-	private ClassWriter initClass(String name, Context context) {
+	private ClassVisitor initClass(String name, Context context) {
 		context.setType(ContextType.GLOBAL);
 
 		String source = context.getSource();
@@ -134,7 +133,7 @@ public class ProgramNode implements Node {
 
 		context.setCurrentClass(name);
 
-		ClassWriter writer = new WaterClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES, context.getLoader());
+		ClassVisitor writer = context.createClassWriter();
 
 		writer.visit(Opcodes.V9, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, name, null, "java/lang/Object", null);
 
@@ -1,22 +1,21 @@
 package water.compiler.parser.nodes.classes;
 
-import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
 import water.compiler.compiler.ContextType;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.Scope;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.lexer.TokenType;
 import water.compiler.parser.Node;
 import water.compiler.parser.nodes.variable.VariableDeclarationNode;
-import water.compiler.util.WaterClassWriter;
+import water.compiler.symbol.ClassSymbol;
+import water.compiler.symbol.MethodSymbol;
 import water.compiler.util.WaterType;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -44,7 +43,7 @@ public class ClassDeclarationNode implements Node {
 		ContextType prevType = context.getType();
 		String prevClass = context.getCurrentClass();
 
-		ClassWriter writer = initClass("java/lang/Object", context);
+		ClassVisitor writer = initClass("java/lang/Object", context);
 
 		writer.visitEnd();
 
@@ -60,7 +59,7 @@ public class ClassDeclarationNode implements Node {
 		WaterType prevSuperClass = context.getCurrentSuperClass();
 		context.setCurrentSuperClass(getSuperclassType(context));
 
-		ClassWriter writer = initClass(getSuperclassType(context).getInternalName(), context);
+		ClassVisitor writer = initClass(getSuperclassType(context).getInternalName(), context);
 
 		MethodVisitor defaultConstructor = null;
 		if(constructors.size() == 0) {
@@ -124,7 +123,7 @@ public class ClassDeclarationNode implements Node {
 		WaterType prevSuperClass = context.getCurrentSuperClass();
 		context.setCurrentSuperClass(getSuperclassType(context));
 
-		ClassWriter writer = initClass(getSuperclassType(context).getInternalName(), context);
+		ClassVisitor writer = initClass(getSuperclassType(context).getInternalName(), context);
 
 		MethodVisitor defaultConstructor = null;
 
@@ -178,7 +177,7 @@ public class ClassDeclarationNode implements Node {
 		context.setCurrentSuperClass(prevSuperClass);
 	}
 
-	private ClassWriter initClass(String superclassName, Context context) {
+	private ClassVisitor initClass(String superclassName, Context context) {
 		context.setType(ContextType.CLASS);
 		int accessLevel = getAccessLevel();
 
@@ -198,7 +197,7 @@ public class ClassDeclarationNode implements Node {
 
 		context.setCurrentClass(className);
 
-		ClassWriter writer = new WaterClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES, context.getLoader());
+		ClassVisitor writer = context.createClassWriter();
 
 		writer.visit(Opcodes.V9, accessLevel | Opcodes.ACC_SUPER, className, null, superclassName, null);
 
@@ -209,7 +208,7 @@ public class ClassDeclarationNode implements Node {
 		return writer;
 	}
 
-	private MethodVisitor createDefaultConstructor(ClassWriter writer, Context context, boolean check) throws SemanticException {
+	private MethodVisitor createDefaultConstructor(ClassVisitor writer, Context context, boolean check) throws SemanticException {
 		MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
 		constructor.visitCode();
 
@@ -219,13 +218,13 @@ public class ClassDeclarationNode implements Node {
 		if(check) {
 			boolean hasDefaultConstructor = false;
 			try {
-				Class<?> klass = Class.forName(getSuperclassType(context).getClassName(), false, context.getLoader());
+				ClassSymbol klass = context.getSymbols().forName(getSuperclassType(context).getClassName());
 
-				for(Constructor<?> superConstructor : klass.getConstructors()) {
-					if(Modifier.isPrivate(superConstructor.getModifiers())) {
+				for(MethodSymbol superConstructor : klass.getConstructors()) {
+					if(superConstructor.isPrivate()) {
 						continue;
 					}
-					if(superConstructor.getParameterTypes().length != 0) {
+					if(superConstructor.type().getArgumentTypes().length != 0) {
 						continue;
 					}
 					hasDefaultConstructor = true;
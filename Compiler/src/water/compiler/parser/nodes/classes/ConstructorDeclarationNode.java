@@ -1,19 +1,19 @@
 package water.compiler.parser.nodes.classes;
 
 import org.objectweb.asm.*;
-import water.compiler.FileContext;
 import water.compiler.compiler.*;
+import water.compiler.compiler.FileContext;
 import water.compiler.lexer.Token;
 import water.compiler.lexer.TokenType;
 import water.compiler.parser.Node;
 import water.compiler.parser.nodes.variable.VariableDeclarationNode;
+import water.compiler.symbol.ClassSymbol;
+import water.compiler.symbol.MethodSymbol;
 import water.compiler.util.Pair;
 import water.compiler.util.TypeUtil;
 import water.compiler.util.Unthrow;
 import water.compiler.util.WaterType;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -40,7 +40,7 @@ public class ConstructorDeclarationNode implements Node {
 	public void visit(FileContext fc) throws SemanticException {
 		Context context = fc.getContext();
 
-		ClassWriter writer = context.getCurrentClassWriter();
+		ClassVisitor writer = context.getCurrentClassWriter();
 		String args = parameters.stream().map(Pair::getSecond).map(n -> Unthrow.wrap(() -> n.getReturnType(context).getDescriptor())).collect(Collectors.joining());
 		MethodVisitor constructor = writer.visitMethod(getAccess(), "<init>", "(" + args + ")V", null, null);
 		constructor.visitCode();
@@ -122,7 +122,7 @@ public class ConstructorDeclarationNode implements Node {
 	}
 
 	private MethodVisitor createDefaultConstructor(Context context) throws SemanticException {
-		ClassWriter writer = context.getCurrentClassWriter();
+		ClassVisitor writer = context.getCurrentClassWriter();
 		String args = parameters.stream().map(Pair::getSecond).map(n -> Unthrow.wrap(() -> n.getReturnType(context).getDescriptor())).collect(Collectors.joining());
 		MethodVisitor constructor = writer.visitMethod(getAccess(), "<init>", "(" + args + ")V", null, null);
 		constructor.visitCode();
@@ -145,23 +145,23 @@ public class ConstructorDeclarationNode implements Node {
 			argTypes = superArgs.stream().map(n -> Unthrow.wrap(() -> n.getReturnType(context))).toArray(WaterType[]::new);
 		}
 
-		Class<?> klass;
+		ClassSymbol klass;
 
 		try {
-			klass = Class.forName(context.getCurrentSuperClass().getClassName(), false, context.getLoader());
+			klass = context.getSymbols().forName(context.getCurrentSuperClass().getClassName());
 		} catch (ClassNotFoundException e) {
 			throw new SemanticException(constructorToken, "Could not resolve class '%s'".formatted(e.getMessage()));
 		}
 
-		Constructor<?>[] constructors = Arrays.stream(klass.getDeclaredConstructors()).filter(c -> !Modifier.isPrivate(c.getModifiers())).toArray(Constructor[]::new);
+		List<MethodSymbol> constructors = klass.getDeclaredConstructors().stream().filter(c -> !c.isPrivate()).toList();
 
-		Constructor<?> superConstructor = TypeUtil.getConstructor(constructorToken, constructors, argTypes, context);
+		MethodSymbol superConstructor = TypeUtil.getConstructor(constructorToken, constructors, argTypes, context);
 
 		if(superConstructor == null) throw new SemanticException(constructorToken, "SuperClass '%s' cannot be instantiated with arguments: %s"
 				.formatted(context.getCurrentSuperClass(),
 						Arrays.stream(argTypes).map(WaterType::toString).collect(Collectors.joining(", "))));
 
-		WaterType[] resolvedTypes = WaterType.getType(superConstructor).getArgumentTypes();
+		WaterType[] resolvedTypes = superConstructor.type().getArgumentTypes();
 		if(superArgs != null) {
 			for (int i = 0; i < superArgs.size(); i++) {
 				Node arg = superArgs.get(i);
@@ -176,10 +176,7 @@ public class ConstructorDeclarationNode implements Node {
 			}
 		}
 
-		String descriptor = "(%s)V".formatted(Arrays.stream(
-				superConstructor.getParameterTypes()).map(Type::getType).map(Type::getDescriptor).collect(Collectors.joining()));
-
-		methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, context.getCurrentSuperClass().getInternalName(), "<init>", descriptor, false);
+		methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, context.getCurrentSuperClass().getInternalName(), "<init>", superConstructor.descriptor(), false);
 	}
 
 	private int getAccess() {
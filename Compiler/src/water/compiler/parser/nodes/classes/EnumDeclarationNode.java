@@ -1,18 +1,17 @@
 package water.compiler.parser.nodes.classes;
 
-import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
 import water.compiler.compiler.ContextType;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.lexer.TokenType;
 import water.compiler.parser.Node;
 import water.compiler.util.TypeUtil;
-import water.compiler.util.WaterClassWriter;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -35,7 +34,7 @@ public class EnumDeclarationNode implements Node {
 		ContextType prevType = context.getType();
 		String prevClass = context.getCurrentClass();
 
-		ClassWriter writer = initEnumClass(context);
+		ClassVisitor writer = initEnumClass(context);
 		context.setType(ContextType.CLASS);
 
 		Type enumType = Type.getObjectType(context.getCurrentClass());
@@ -67,7 +66,7 @@ public class EnumDeclarationNode implements Node {
 
 		String prevClass = context.getCurrentClass();
 
-		ClassWriter writer = initEnumClass(context);
+		ClassVisitor writer = initEnumClass(context);
 
 		Type enumType = Type.getObjectType(context.getCurrentClass());
 
@@ -130,13 +129,13 @@ public class EnumDeclarationNode implements Node {
 	public void buildClasses(Context context) {
 		String prevClass = context.getCurrentClass();
 
-		ClassWriter writer = initEnumClass(context);
+		ClassVisitor writer = initEnumClass(context);
 		writer.visitEnd();
 
 		context.setCurrentClass(prevClass);
 	}
 
-	private ClassWriter initEnumClass(Context context) {
+	private ClassVisitor initEnumClass(Context context) {
 		int accessLevel = getAccessLevel();
 
 		String baseName = name.getValue();
@@ -155,7 +154,7 @@ public class EnumDeclarationNode implements Node {
 
 		context.setCurrentClass(className);
 
-		ClassWriter writer = new WaterClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES, context.getLoader());
+		ClassVisitor writer = context.createClassWriter();
 
 		writer.visit(Opcodes.V9, accessLevel | Opcodes.ACC_SUPER | Opcodes.ACC_FINAL | Opcodes.ACC_ENUM, className, "Ljava/lang/Enum<L%s;>;".formatted(className), "java/lang/Enum", null);
 
@@ -166,7 +165,7 @@ public class EnumDeclarationNode implements Node {
 		return writer;
 	}
 
-	private void buildFields(ClassWriter writer, MethodVisitor staticMethod, Type enumType, Context context) {
+	private void buildFields(ClassVisitor writer, MethodVisitor staticMethod, Type enumType, Context context) {
 		int count = 0;
 		for(Token field : fields) {
 			writer.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_ENUM, field.getValue(), enumType.getDescriptor(), null, null);
@@ -181,7 +180,7 @@ public class EnumDeclarationNode implements Node {
 		}
 	}
 
-	private void buildValues(ClassWriter writer, MethodVisitor staticMethod, Type enumType, Context context) {
+	private void buildValues(ClassVisitor writer, MethodVisitor staticMethod, Type enumType, Context context) {
 		writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC, "$VALUES", "[" + enumType.getDescriptor(), null, null);
 
 		TypeUtil.generateCorrectInt(fields.size(), context);
@@ -197,7 +196,7 @@ public class EnumDeclarationNode implements Node {
 		staticMethod.visitFieldInsn(Opcodes.PUTSTATIC, enumType.getInternalName(), "$VALUES", "[" + enumType.getDescriptor());
 	}
 
-	private void buildConstructor(ClassWriter writer, Context context) {
+	private void buildConstructor(ClassVisitor writer, Context context) {
 		MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PRIVATE, "<init>", "(Ljava/lang/String;I)V", null, null);
 		constructor.visitCode();
 		context.setMethodVisitor(constructor);
@@ -211,7 +210,7 @@ public class EnumDeclarationNode implements Node {
 		constructor.visitEnd();
 	}
 
-	private void buildValuesMethod(ClassWriter writer, Type enumType, Context context) {
+	private void buildValuesMethod(ClassVisitor writer, Type enumType, Context context) {
 		MethodVisitor values = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "values", "()[" + enumType.getDescriptor(), null, null);
 		values.visitCode();
 		context.setMethodVisitor(values);
@@ -226,7 +225,7 @@ public class EnumDeclarationNode implements Node {
 		values.visitEnd();
 	}
 
-	private void buildValueOfMethod(ClassWriter writer, Type enumType, Context context) {
+	private void buildValueOfMethod(ClassVisitor writer, Type enumType, Context context) {
 		MethodVisitor valueOf = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "valueOf", "(Ljava/lang/String;)" + enumType.getDescriptor(), null, null);
 		valueOf.visitCode();
 
@@ -1,21 +1,19 @@
 package water.compiler.parser.nodes.classes;
 
 import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.parser.LValue;
 import water.compiler.parser.Node;
 import water.compiler.parser.nodes.variable.VariableAccessNode;
+import water.compiler.symbol.ClassSymbol;
+import water.compiler.symbol.FieldSymbol;
+import water.compiler.symbol.MethodSymbol;
 import water.compiler.util.TypeUtil;
 import water.compiler.util.WaterType;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-
 public class MemberAccessNode implements Node {
 
 	private final Node left;
@@ -57,7 +55,7 @@ public class MemberAccessNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		WaterType leftType = getLeftType(context);
 
 		if(leftType.isArray() && name.getValue().equals("length")) return WaterType.INT_TYPE;
@@ -77,32 +75,32 @@ public class MemberAccessNode implements Node {
 	}
 
 	private WaterType resolve(WaterType leftType, Context context, boolean generate) throws SemanticException {
-		Class<?> klass;
+		ClassSymbol klass;
 
 		try {
-			klass = Class.forName(leftType.getClassName(), false, context.getLoader());
+			klass = context.getSymbols().forName(leftType.getClassName());
 		} catch (ClassNotFoundException e) {
 			throw new SemanticException(name, "Could not resolve class '%s'".formatted(e.getMessage()));
 		}
 
 		try {
-			Field f = klass.getDeclaredField(name.getValue());
+			FieldSymbol f = klass.getDeclaredField(name.getValue());
 
 			//TODO Protected
-			if(!Modifier.isPublic(f.getModifiers()) && !leftType.equals(WaterType.getObjectType(context.getCurrentClass()))) {
+			if(!f.isPublic() && !leftType.equals(WaterType.getObjectType(context.getCurrentClass()))) {
 				throw new NoSuchFieldException();
 			}
 
-			if(!isStaticAccess && Modifier.isStatic(f.getModifiers())) {
+			if(!isStaticAccess && f.isStatic()) {
 				throw new SemanticException(name, "Cannot access static member from non-static object.");
 			}
 
 			if(generate) {
 				context.getMethodVisitor().visitFieldInsn(TypeUtil.getAccessOpcode(f),
-						leftType.getInternalName(), name.getValue(), Type.getType(f.getType()).getDescriptor());
+						leftType.getInternalName(), name.getValue(), f.descriptor());
 			}
 
-			return WaterType.getType(f.getType());
+			return WaterType.getType(f.descriptor());
 		} catch (NoSuchFieldException e) {
 			String base = name.getValue();
 			String getName = "get" + base.substring(0, 1).toUpperCase() + base.substring(1);
@@ -120,12 +118,17 @@ public class MemberAccessNode implements Node {
 		}
 	}
 
-	private WaterType attemptMethodCall(Class<?> klass, WaterType leftType, String methodName, boolean generate, Context context) throws NoSuchMethodException, SemanticException {
-		Method m = klass.getMethod(methodName);
+	private WaterType attemptMethodCall(ClassSymbol klass, WaterType leftType, String methodName, boolean generate, Context context) throws NoSuchMethodException, SemanticException {
+		MethodSymbol m;
+		try {
+			m = context.getSymbols().getMethod(klass, methodName);
+		} catch (ClassNotFoundException e) {
+			throw new SemanticException(name, "Could not resolve class '%s'".formatted(e.getMessage()));
+		}
 
-		WaterType returnType = WaterType.getType(m).getReturnType();
+		WaterType returnType = m.type().getReturnType();
 
-		if(!isStaticAccess && Modifier.isStatic(m.getModifiers())) {
+		if(!isStaticAccess && m.isStatic()) {
 			throw new SemanticException(name, "Cannot access static member from non-static object.");
 		}
 
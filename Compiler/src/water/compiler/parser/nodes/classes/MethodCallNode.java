@@ -1,26 +1,24 @@
 package water.compiler.parser.nodes.classes;
 
 import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.parser.Node;
 import water.compiler.parser.nodes.variable.VariableAccessNode;
+import water.compiler.symbol.ClassSymbol;
+import water.compiler.symbol.MethodSymbol;
+import water.compiler.symbol.OverloadKey;
 import water.compiler.util.Pair;
 import water.compiler.util.TypeUtil;
 import water.compiler.util.Unthrow;
 import water.compiler.util.WaterType;
 
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class MethodCallNode implements Node {
 
@@ -63,9 +61,9 @@ public class MethodCallNode implements Node {
 			throw new SemanticException(name, "Cannot invoke method on type '%s'".formatted(leftType));
 		}
 
-		Method toCall = resolve(leftType, context.getContext());
+		MethodSymbol toCall = resolve(leftType, context.getContext());
 
-		WaterType[] resolvedTypes = WaterType.getType(toCall).getArgumentTypes();
+		WaterType[] resolvedTypes = toCall.type().getArgumentTypes();
 
 		for(int i = 0; i < args.size(); i++) {
 			Node arg = args.get(i);
@@ -79,21 +77,16 @@ public class MethodCallNode implements Node {
 			}
 		}
 
-		Stream<WaterType> paramTypes = Arrays.stream(resolvedTypes);
-
-		String descriptor = "(%s)%s"
-				.formatted(paramTypes.map(WaterType::getDescriptor).collect(Collectors.joining()), Type.getType(toCall.getReturnType()).getDescriptor());
-
-		context.getContext().getMethodVisitor().visitMethodInsn(isSuper ? Opcodes.INVOKESPECIAL : TypeUtil.getInvokeOpcode(toCall), leftType.getInternalName(), name.getValue(), descriptor, false);
+		context.getContext().getMethodVisitor().visitMethodInsn(isSuper ? Opcodes.INVOKESPECIAL : TypeUtil.getInvokeOpcode(toCall), leftType.getInternalName(), name.getValue(), toCall.descriptor(), false);
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		WaterType leftType = getLeftType(context);
 
 		if(leftType.isArray() && name.getValue().equals("length") && args.size() == 0) return WaterType.INT_TYPE;
 
-		return WaterType.getType(resolve(leftType, context)).getReturnType();
+		return resolve(leftType, context).type().getReturnType();
 	}
 
 	private WaterType getLeftType(Context context) throws SemanticException {
@@ -107,25 +100,29 @@ public class MethodCallNode implements Node {
 		return left.getReturnType(context);
 	}
 
-	private Method resolve(WaterType leftType, Context context) throws SemanticException {
+	private MethodSymbol resolve(WaterType leftType, Context context) throws SemanticException {
 		WaterType[] argTypes = args.stream()
 				.map(n -> Unthrow.wrap(() -> n.getReturnType(context))).toArray(WaterType[]::new);
 
-		Class<?> klass;
+		ClassSymbol klass;
 
 		try {
-			klass = Class.forName(leftType.getClassName(), false, context.getLoader());
+			klass = context.getSymbols().forName(leftType.getClassName());
 		} catch (ClassNotFoundException e) {
 			throw new SemanticException(name, "Could not resolve class '%s'".formatted(e.getMessage()));
 		}
 
-		ArrayList<Pair<Integer, Method>> possible = new ArrayList<>();
+		OverloadKey key = new OverloadKey(klass.getName(), name.getValue(), isStaticAccess, argTypes);
+		MethodSymbol resolved = context.getSymbols().getOverload(key);
+		if(resolved != null) return resolved;
+
+		ArrayList<Pair<Integer, MethodSymbol>> possible = new ArrayList<>();
 
 		try {
 			out:
-			for (Method method : klass.getMethods()) {
-				if(!method.getName().equals(name.getValue())) continue;
-				WaterType[] expectArgs = WaterType.getType(method).getArgumentTypes();
+			for (MethodSymbol method : context.getSymbols().getMethods(klass)) {
+				if(!method.name().equals(name.getValue())) continue;
+				WaterType[] expectArgs = method.type().getArgumentTypes();
 
 				if (expectArgs.length != argTypes.length) continue;
 
@@ -158,8 +155,8 @@ public class MethodCallNode implements Node {
 									List.of(argTypes).stream().map(WaterType::toString).collect(Collectors.joining(", "))));
 		}
 
-		List<Pair<Integer, Method>> appliedPossible = possible.stream()
-				.filter(p -> Modifier.isStatic(p.getSecond().getModifiers()) == isStaticAccess)
+		List<Pair<Integer, MethodSymbol>> appliedPossible = possible.stream()
+				.filter(p -> p.getSecond().isStatic() == isStaticAccess)
 				.sorted(Comparator.comparingInt(Pair::getFirst)).toList();
 
 		if(appliedPossible.size() == 0) {
@@ -169,7 +166,9 @@ public class MethodCallNode implements Node {
 				throw new SemanticException(name, "Cannot invoke static method from non-static object.");
 		}
 
-		return appliedPossible.get(0).getSecond();
+		resolved = appliedPossible.get(0).getSecond();
+		context.getSymbols().putOverload(key, resolved);
+		return resolved;
 	}
 
 	@Override
@@ -2,8 +2,8 @@ package water.compiler.parser.nodes.classes;
 
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.parser.Node;
@@ -24,7 +24,7 @@ public class SuperNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		if(context.getCurrentSuperClass() == null) {
 			throw new SemanticException(superTok, "Can only use 'super' within a class.");
 		}
@@ -3,8 +3,8 @@ package water.compiler.parser.nodes.exception;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
 import water.compiler.compiler.*;
+import water.compiler.compiler.FileContext;
 import water.compiler.lexer.Token;
 import water.compiler.parser.Node;
 import water.compiler.util.WaterType;
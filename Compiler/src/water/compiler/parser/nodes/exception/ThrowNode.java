@@ -1,7 +1,7 @@
 package water.compiler.parser.nodes.exception;
 
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.parser.Node;
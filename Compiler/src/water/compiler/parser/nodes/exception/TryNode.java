@@ -3,7 +3,7 @@ package water.compiler.parser.nodes.exception;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.Scope;
 import water.compiler.compiler.SemanticException;
 import water.compiler.parser.Node;
@@ -1,8 +1,8 @@
 package water.compiler.parser.nodes.function;
 
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.Function;
 import water.compiler.compiler.FunctionType;
 import water.compiler.compiler.SemanticException;
@@ -61,7 +61,7 @@ public class FunctionCallNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		WaterType[] argTypes = new WaterType[args.size()];
 
 		for(int i = 0; i < args.size(); i++) {
@@ -3,8 +3,8 @@ package water.compiler.parser.nodes.nullability;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.parser.Node;
@@ -52,7 +52,7 @@ public class NonNullAssertionNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		WaterType type = target.getReturnType(context);
 
 		if(type.isPrimitive()) {
@@ -62,7 +62,7 @@ public class NonNullAssertionNode implements Node {
 			throw new SemanticException(op, "Cannot assert non-null on type which is already not null ('%s')".formatted(type));
 		}
 
-		return type.copy().asNonNullable();
+		return type.asNonNullable();
 	}
 
 	@Override
@@ -2,8 +2,8 @@ package water.compiler.parser.nodes.nullability;
 
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.parser.LValue;
@@ -55,7 +55,7 @@ public class NullableIndexAccessNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		WaterType rawType = synthetic().getReturnType(context);
 
 		return rawType.getAutoBoxWrapper().asNullable();
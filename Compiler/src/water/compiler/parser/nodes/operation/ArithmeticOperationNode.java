@@ -4,8 +4,8 @@ import org.objectweb.asm.Handle;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.lexer.TokenType;
@@ -143,7 +143,7 @@ public class ArithmeticOperationNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		WaterType leftType = left.getReturnType(context);
 		WaterType rightType = right.getReturnType(context);
 
@@ -195,17 +195,12 @@ public class ArithmeticOperationNode implements Node {
 
 	@Override
 	public boolean isConstant(Context context) throws SemanticException {
-		List<Class<?>> shouldBeConstant = List.of(String.class, Integer.class, Double.class);
+		List<String> shouldBeConstant = List.of("Ljava/lang/String;", "Ljava/lang/Integer;", "Ljava/lang/Double;");
 		WaterType leftReturnType = left.getReturnType(context);
 		WaterType rightReturnType = right.getReturnType(context);
 
-		try {
-			if (!shouldBeConstant.contains(leftReturnType.toClass(context)) || !shouldBeConstant.contains(rightReturnType.toClass(context)))
-				return false;
-		}
-		catch (ClassNotFoundException e) {
-			throw new SemanticException(op, "Could not resolve class '%s'".formatted(e.getMessage()));
-		}
+		if (!shouldBeConstant.contains(leftReturnType.getDescriptor()) || !shouldBeConstant.contains(rightReturnType.getDescriptor()))
+			return false;
 		if((leftReturnType.equals(WaterType.STRING_TYPE) || rightReturnType.equals(WaterType.STRING_TYPE)) && op.getType() == TokenType.STAR) return false;
 		return left.isConstant(context) && right.isConstant(context);
 	}
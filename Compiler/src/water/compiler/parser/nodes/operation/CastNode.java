@@ -2,8 +2,8 @@ package water.compiler.parser.nodes.operation;
 
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.parser.Node;
@@ -27,11 +27,7 @@ public class CastNode implements Node {
 		WaterType from = left.getReturnType(context);
 		WaterType to = type.getReturnType(context);
 
-		try {
-			if(from.toClass(context).equals(to.toClass(context))) return;
-		} catch (ClassNotFoundException e) {
-			throw new SemanticException(as, "Could not resolve class '%s'".formatted(e.getMessage()));
-		}
+		if(from.getDescriptor().equals(to.getDescriptor())) return;
 
 		if(from.equals(WaterType.VOID_TYPE)) throw new SemanticException(as, "Cannot cast from void");
 
@@ -44,8 +40,8 @@ public class CastNode implements Node {
 			context.getMethodVisitor().visitTypeInsn(Opcodes.CHECKCAST, to.getInternalName());
 
 			try {
-				if(!to.toClass(context).isAssignableFrom(from.toClass(context))
-				&& !from.toClass(context).isAssignableFrom(to.toClass(context)))
+				if(!context.getSymbols().isAssignableFrom(to, from)
+				&& !context.getSymbols().isAssignableFrom(from, to))
 					throw new SemanticException(as, "Cannot cast type '%s' to '%s'".formatted(from.getClassName(), to.getClassName()));
 			} catch (ClassNotFoundException e) {
 				throw new SemanticException(as, "Could not resolve class '%s'".formatted(e.getMessage()));
@@ -79,7 +75,7 @@ public class CastNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		return type.getReturnType(context);
 	}
 
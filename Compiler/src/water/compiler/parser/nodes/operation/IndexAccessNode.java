@@ -1,8 +1,8 @@
 package water.compiler.parser.nodes.operation;
 
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.parser.LValue;
@@ -49,7 +49,7 @@ public class IndexAccessNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		WaterType leftType = left.getReturnType(context);
 
 		if(!leftType.isArray()) {
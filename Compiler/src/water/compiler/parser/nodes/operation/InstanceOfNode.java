@@ -1,8 +1,8 @@
 package water.compiler.parser.nodes.operation;
 
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.compiler.Variable;
 import water.compiler.lexer.Token;
@@ -66,7 +66,7 @@ public class InstanceOfNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		return WaterType.BOOLEAN_TYPE;
 	}
 
@@ -2,8 +2,8 @@ package water.compiler.parser.nodes.operation;
 
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.compiler.Variable;
 import water.compiler.compiler.VariableType;
@@ -246,7 +246,7 @@ public class UpdateExpressionNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		WaterType returnType = expression.getReturnType(context);
 		if(!returnType.isNumeric()) {
 			throw new SemanticException(operation, "Update expression ('%s') target must be numeric (got '%s')".formatted(operation.getValue(), returnType));
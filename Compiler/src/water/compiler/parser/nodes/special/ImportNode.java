@@ -1,10 +1,11 @@
 package water.compiler.parser.nodes.special;
 
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.parser.Node;
+import water.compiler.symbol.ClassSymbol;
 import water.compiler.util.WaterType;
 
 public record ImportNode(Token importTok, Node type, Token as) implements Node {
@@ -22,9 +23,9 @@ public record ImportNode(Token importTok, Node type, Token as) implements Node {
 			throw new SemanticException(importTok, "Cannot import primitive type");
 		}
 
-		Class<?> klass;
+		ClassSymbol klass;
 		try {
-			klass = Class.forName(importType.getClassName(), false, context.getLoader());
+			klass = context.getSymbols().forName(importType.getClassName());
 		} catch (ClassNotFoundException e) {
 			throw new SemanticException(importTok, "Could not resolve class '%s'".formatted(e.getMessage()));
 		}
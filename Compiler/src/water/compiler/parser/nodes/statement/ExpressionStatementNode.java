@@ -1,13 +1,13 @@
 package water.compiler.parser.nodes.statement;
 
 import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.parser.nodes.variable.AssignmentNode;
 import water.compiler.util.OptimizationUtil;
 import water.compiler.util.TypeUtil;
 import water.compiler.parser.Node;
 import water.compiler.util.WaterType;
+import water.compiler.compiler.FileContext;
 
 public class ExpressionStatementNode implements Node {
 	private final Node expression;
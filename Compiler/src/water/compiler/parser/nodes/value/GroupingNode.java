@@ -1,8 +1,8 @@
 package water.compiler.parser.nodes.value;
 
 import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.parser.LValue;
 import water.compiler.parser.Node;
@@ -25,7 +25,7 @@ public class GroupingNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		return value.getReturnType(context);
 	}
 
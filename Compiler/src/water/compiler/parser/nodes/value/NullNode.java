@@ -2,8 +2,8 @@ package water.compiler.parser.nodes.value;
 
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.parser.Node;
 import water.compiler.util.TypeUtil;
@@ -16,7 +16,7 @@ public class NullNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		return WaterType.NULL_TYPE;
 	}
 
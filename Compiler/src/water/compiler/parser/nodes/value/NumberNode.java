@@ -1,7 +1,7 @@
 package water.compiler.parser.nodes.value;
 
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.lexer.Token;
 import water.compiler.parser.Node;
 import water.compiler.util.TypeUtil;
@@ -39,7 +39,7 @@ public class NumberNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) {
+	public WaterType computeReturnType(Context context) {
 		return computeCorrectType();
 	}
 
@@ -1,7 +1,7 @@
 package water.compiler.parser.nodes.value;
 
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
 import water.compiler.parser.Node;
@@ -50,7 +50,7 @@ public class TypeNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		if(isNullable && isPrimitive) {
 			throw new SemanticException(root, "Primitive types cannot be nullable.");
 		}
@@ -71,7 +71,7 @@ public class TypeNode implements Node {
 		};
 
 		try {
-			return WaterType.getType(TypeUtil.classForName(path, context)).asNullable(isNullable);
+			return WaterType.getObjectType(TypeUtil.classForName(path, context).getName()).asNullable(isNullable);
 		} catch (ClassNotFoundException e) {
 			throw new SemanticException(root, "Could not resolve class '%s'".formatted(e.getMessage()));
 		}
@@ -3,9 +3,8 @@ package water.compiler.parser.nodes.variable;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.compiler.Variable;
 import water.compiler.compiler.VariableType;
@@ -17,14 +16,14 @@ import water.compiler.parser.nodes.nullability.NullableMemberAccessNode;
 import water.compiler.parser.nodes.operation.ArithmeticOperationNode;
 import water.compiler.parser.nodes.operation.IntegerOperationNode;
 import water.compiler.parser.nodes.value.ThisNode;
+import water.compiler.symbol.ClassSymbol;
+import water.compiler.symbol.FieldSymbol;
+import water.compiler.symbol.MethodSymbol;
 import water.compiler.util.Pair;
 import water.compiler.util.TypeUtil;
 import water.compiler.util.WaterType;
 
 import java.io.File;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -103,7 +102,7 @@ public class AssignmentNode implements Node {
 		if(variable.getVariableType() == VariableType.STATIC) {
 			methodVisitor.visitFieldInsn(Opcodes.PUTSTATIC, variable.getOwner(), variable.getName(), variable.getType().getDescriptor());
 		}
-		if(variable.getVariableType() == VariableType.CLASS) {
+		else if(variable.getVariableType() == VariableType.CLASS) {
 			methodVisitor.visitFieldInsn(Opcodes.PUTFIELD, variable.getOwner(), variable.getName(), variable.getType().getDescriptor());
 		}
 		else {
@@ -279,10 +278,10 @@ public class AssignmentNode implements Node {
 
 	public static void handlePropertySettingLogic(Node obj, WaterType objType, Token name, WaterType returnType, FileContext context,
 												   Token op, boolean isStaticAccess, boolean isExpressionStatementBody) throws SemanticException {
-		Class<?> klass;
+		ClassSymbol klass;
 
 		try {
-			klass = Class.forName(objType.getClassName(), false, context.getContext().getLoader());
+			klass = context.getContext().getSymbols().forName(objType.getClassName());
 		} catch (ClassNotFoundException e) {
 			throw new SemanticException(name, "Could not resolve class '%s'".formatted(e.getMessage()));
 		}
@@ -290,55 +289,55 @@ public class AssignmentNode implements Node {
 		if(!isExpressionStatementBody) context.getContext().getMethodVisitor().visitInsn(returnType.getDupX1Opcode());
 
 		try {
-			Field f = klass.getDeclaredField(name.getValue());
+			FieldSymbol f = klass.getDeclaredField(name.getValue());
 
 			try {
-				if(!WaterType.getType(f).isAssignableFrom(returnType, context.getContext(), true)) {
+				if(!f.type().isAssignableFrom(returnType, context.getContext(), true)) {
 					throw new SemanticException(op,
 							"Cannot assign type '%s' to variable of type '%s'"
-									.formatted(returnType, WaterType.getType(f.getType())));
+									.formatted(returnType, WaterType.getType(f.descriptor())));
 				}
 			} catch (ClassNotFoundException e) {
 				throw new SemanticException(op, "Could not resolve class '%s'".formatted(e.getMessage()));
 			}
 
 			//TODO Protected
-			if(!Modifier.isPublic(f.getModifiers()) && !objType.equals(WaterType.getObjectType(context.getContext().getCurrentClass()))) {
+			if(!f.isPublic() && !objType.equals(WaterType.getObjectType(context.getContext().getCurrentClass()))) {
 				throw new NoSuchFieldException();
 			}
 
-			if(!isStaticAccess && Modifier.isStatic(f.getModifiers())) {
+			if(!isStaticAccess && f.isStatic()) {
 				throw new SemanticException(name, "Cannot access static member from non-static object.");
 			}
 
-			if(Modifier.isFinal(f.getModifiers())) {
+			if(f.isFinal()) {
 				if (!(obj instanceof ThisNode) || !context.getContext().isConstructor())
 					throw new SemanticException(name, "Cannot assign final member '%s'".formatted(name.getValue()));
 			}
 
 			context.getContext().getMethodVisitor().visitFieldInsn(TypeUtil.getMemberPutOpcode(f),
-					objType.getInternalName(), name.getValue(), Type.getType(f.getType()).getDescriptor());
+					objType.getInternalName(), name.getValue(), f.descriptor());
 
 		} catch (NoSuchFieldException e) {
 			String base = name.getValue().substring(0, 1).toUpperCase() + name.getValue().substring(1);
 			String setName = "set" + (name.getValue().matches("^is[\\p{Lu}].*") ? base.substring(2) : base);
 
-			Method m = resolveSetMethod(klass, name, setName, returnType, context.getContext(), isStaticAccess);
+			MethodSymbol m = resolveSetMethod(klass, name, setName, returnType, context.getContext(), isStaticAccess);
 
-			String descriptor = "(%s)V".formatted(WaterType.getType(m.getParameterTypes()[0]).getDescriptor());
+			String descriptor = "(%s)V".formatted(m.type().getArgumentTypes()[0].getDescriptor());
 
 			context.getContext().getMethodVisitor().visitMethodInsn(TypeUtil.getInvokeOpcode(m),
 					objType.getInternalName(), setName, descriptor, false);
 		}
 	}
 
-	private static Method resolveSetMethod(Class<?> klass, Token location, String name, WaterType arg, Context context, boolean isStaticAccess) throws SemanticException {
-		ArrayList<Pair<Integer, Method>> possible = new ArrayList<>();
+	private static MethodSymbol resolveSetMethod(ClassSymbol klass, Token location, String name, WaterType arg, Context context, boolean isStaticAccess) throws SemanticException {
+		ArrayList<Pair<Integer, MethodSymbol>> possible = new ArrayList<>();
 
 		try {
-			for (Method method : klass.getMethods()) {
-				if(!method.getName().equals(name)) continue;
-				WaterType[] expectArgs = WaterType.getType(method).getArgumentTypes();
+			for (MethodSymbol method : context.getSymbols().getMethods(klass)) {
+				if(!method.name().equals(name)) continue;
+				WaterType[] expectArgs = method.type().getArgumentTypes();
 
 				if (expectArgs.length != 1) continue;
 
@@ -363,12 +362,12 @@ public class AssignmentNode implements Node {
 
 		if(possible.size() == 0) {
 			throw new SemanticException(location,
-					"Could not resolve field '%s' in class '%s' with type '%s'".formatted(name, klass.getName(),
+					"Could not resolve field '%s' in class '%s' with type '%s'".formatted(name, klass.getClassName(),
 							arg));
 		}
 
-		List<Pair<Integer, Method>> appliedPossible = possible.stream()
-				.filter(p -> Modifier.isStatic(p.getSecond().getModifiers()) == isStaticAccess)
+		List<Pair<Integer, MethodSymbol>> appliedPossible = possible.stream()
+				.filter(p -> p.getSecond().isStatic() == isStaticAccess)
 				.sorted(Comparator.comparingInt(Pair::getFirst)).toList();
 
 		if(appliedPossible.size() == 0) {
@@ -430,7 +429,7 @@ public class AssignmentNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		return right.getReturnType(context);
 	}
 
@@ -1,14 +1,15 @@
 package water.compiler.parser.nodes.variable;
 
 import org.objectweb.asm.Opcodes;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.compiler.Variable;
 import water.compiler.compiler.VariableType;
 import water.compiler.lexer.Token;
 import water.compiler.parser.LValue;
 import water.compiler.parser.Node;
+import water.compiler.symbol.ClassSymbol;
 import water.compiler.util.TypeUtil;
 import water.compiler.util.WaterType;
 
@@ -55,15 +56,15 @@ public class VariableAccessNode implements Node {
 	}
 
 	@Override
-	public WaterType getReturnType(Context context) throws SemanticException {
+	public WaterType computeReturnType(Context context) throws SemanticException {
 		Variable v = context.getScope().lookupVariable(name.getValue());
 
 		if(v == null) {
 			if(isMemberAccess) {
 				try {
-					Class<?> staticClass = TypeUtil.classForName(name.getValue(), context);
+					ClassSymbol staticClass = TypeUtil.classForName(name.getValue(), context);
 					isStaticClassAccess = true;
-					return WaterType.getType(staticClass);
+					return WaterType.getObjectType(staticClass.getName());
 				} catch (ClassNotFoundException e) {
 					throw new SemanticException(name, "Cannot resolve variable '%s' in current scope.".formatted(name.getValue()));
 				}
@@ -1,8 +1,8 @@
 package water.compiler.parser.nodes.variable;
 
 import org.objectweb.asm.*;
-import water.compiler.FileContext;
 import water.compiler.compiler.*;
+import water.compiler.compiler.FileContext;
 import water.compiler.lexer.Token;
 import water.compiler.parser.Node;
 import water.compiler.util.WaterType;
@@ -59,7 +59,7 @@ public class VariableDeclarationNode implements Node {
 			context.getContext().updateLine(name.getLine());
 			generateValue(context);
 
-			context.getContext().getMethodVisitor().visitFieldInsn(Opcodes.PUTSTATIC, Type.getInternalName(context.getCurrentClass()), name.getValue(), returnType.getDescriptor());
+			context.getContext().getMethodVisitor().visitFieldInsn(Opcodes.PUTSTATIC, context.getCurrentClass().getName(), name.getValue(), returnType.getDescriptor());
 		}
 		else if(context.getContext().getType() == ContextType.FUNCTION) {
 
@@ -101,7 +101,7 @@ public class VariableDeclarationNode implements Node {
 
 			int setOpcode = isStatic(context.getContext()) ? Opcodes.PUTSTATIC : Opcodes.PUTFIELD;
 
-			context.getContext().getMethodVisitor().visitFieldInsn(setOpcode, Type.getInternalName(context.getCurrentClass()), name.getValue(), returnType.getDescriptor());
+			context.getContext().getMethodVisitor().visitFieldInsn(setOpcode, context.getCurrentClass().getName(), name.getValue(), returnType.getDescriptor());
 		}
 	}
 
@@ -0,0 +1,210 @@
+package water.compiler.symbol;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import water.compiler.util.WaterType;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The signature of a class - its hierarchy, fields, methods, and constructors - as read from a class file.
+ * Unlike a {@link Class}, reading a symbol never loads or links the class.
+ */
+public class ClassSymbol {
+	private final String name;
+	private final int access;
+	private final String superName;
+	private final List<String> interfaces;
+	private final String simpleName;
+	private final List<FieldSymbol> fields;
+	private final List<MethodSymbol> methods;
+	private final List<MethodSymbol> declaredMethods;
+	private final List<MethodSymbol> declaredConstructors;
+	private final List<MethodSymbol> constructors;
+	/** The compact form the symbol was decoded from, as stored in a {@link SymbolIndex} */
+	private final byte[] record;
+
+	private ClassSymbol(byte[] record, String name, int access, String superName, List<String> interfaces, String simpleName, List<FieldSymbol> fields, List<MethodSymbol> methods) {
+		this.record = record;
+		this.name = name;
+		this.access = access;
+		this.superName = superName;
+		this.interfaces = interfaces;
+		this.simpleName = simpleName;
+		this.fields = fields;
+		this.methods = methods;
+		this.declaredMethods = methods.stream().filter(m -> !m.name().startsWith("<")).toList();
+		this.declaredConstructors = methods.stream().filter(MethodSymbol::isConstructor).toList();
+		this.constructors = declaredConstructors.stream().filter(MethodSymbol::isPublic).toList();
+	}
+
+	/**
+	 * Reads the symbol of a class file. Method bodies are skipped.
+	 * @param classFile The byte[] representation of the class
+	 * @return The symbol of the class
+	 */
+	public static ClassSymbol read(byte[] classFile) {
+		return decode(ClassSymbolReader.encode(classFile));
+	}
+
+	/**
+	 * Decodes a symbol from its record, as written by {@link ClassSymbolReader}.
+	 * @param record The symbol record
+	 * @return The symbol of the class
+	 */
+	public static ClassSymbol decode(byte[] record) {
+		try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+			String name = in.readUTF();
+			int access = in.readInt();
+			String superName = in.readUTF();
+
+			List<String> interfaces = new ArrayList<>();
+			for(int i = in.readInt(); i > 0; i--) {
+				interfaces.add(in.readUTF());
+			}
+			String simpleName = in.readUTF();
+
+			List<FieldSymbol> fields = new ArrayList<>();
+			for(int i = in.readInt(); i > 0; i--) {
+				int fieldAccess = in.readInt();
+				String fieldName = in.readUTF();
+				String descriptor = in.readUTF();
+				fields.add(new FieldSymbol(name, fieldAccess, fieldName, descriptor, WaterType.getType(descriptor, readNullable(in))));
+			}
+
+			List<MethodSymbol> methods = new ArrayList<>();
+			for(int i = in.readInt(); i > 0; i--) {
+				int methodAccess = in.readInt();
+				String methodName = in.readUTF();
+				String descriptor = in.readUTF();
+				Type methodType = Type.getMethodType(descriptor);
+				Type[] argumentTypes = methodType.getArgumentTypes();
+
+				int[] nullableReturn = readNullable(in);
+				WaterType[] parameterTypes = new WaterType[argumentTypes.length];
+				for(int j = 0; j < argumentTypes.length; j++) {
+					parameterTypes[j] = WaterType.getType(argumentTypes[j].getDescriptor(), readNullable(in));
+				}
+				WaterType returnType = methodName.equals("<init>") ? WaterType.VOID_TYPE : WaterType.getType(methodType.getReturnType().getDescriptor(), nullableReturn);
+
+				methods.add(new MethodSymbol(name, methodAccess, methodName, descriptor, WaterType.getMethodType(returnType, parameterTypes)));
+			}
+
+			return new ClassSymbol(record, name, access, superName.isEmpty() ? null : superName, List.copyOf(interfaces), simpleName, List.copyOf(fields), List.copyOf(methods));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Malformed symbol record", e);
+		}
+	}
+
+	private static int[] readNullable(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if(length == -1) return null;
+
+		int[] nullable = new int[length];
+		for(int i = 0; i < length; i++) {
+			nullable[i] = in.readInt();
+		}
+		return nullable;
+	}
+
+	/**
+	 * @return The compact record of this symbol, which {@link #decode(byte[])} reads back
+	 */
+	byte[] getRecord() {
+		return record;
+	}
+
+	/**
+	 * @return The internal name of the class
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The fully qualified name of the class, as given by {@link Class#getName()}
+	 */
+	public String getClassName() {
+		return name.replace('/', '.');
+	}
+
+	/**
+	 * @return The name of the class as given in source, as given by {@link Class#getSimpleName()}
+	 */
+	public String getSimpleName() {
+		return simpleName;
+	}
+
+	public int getAccess() {
+		return access;
+	}
+
+	/**
+	 * @return The internal name of the superclass, or null for java.lang.Object
+	 */
+	public String getSuperName() {
+		return superName;
+	}
+
+	/**
+	 * @return The internal names of the interfaces directly implemented by the class
+	 */
+	public List<String> getInterfaces() {
+		return interfaces;
+	}
+
+	public boolean isInterface() {
+		return (access & Opcodes.ACC_INTERFACE) != 0;
+	}
+
+	/**
+	 * @return All fields declared by this class, of any access
+	 */
+	public List<FieldSymbol> getDeclaredFields() {
+		return fields;
+	}
+
+	/**
+	 * Finds a field declared by this class, of any access.
+	 * @param name The name of the field
+	 * @return The field
+	 * @throws NoSuchFieldException If this class does not declare the field
+	 */
+	public FieldSymbol getDeclaredField(String name) throws NoSuchFieldException {
+		for(FieldSymbol field : fields) {
+			if(field.name().equals(name)) return field;
+		}
+		throw new NoSuchFieldException(name);
+	}
+
+	/**
+	 * @return All methods declared by this class, of any access, excluding constructors and static initializers
+	 */
+	public List<MethodSymbol> getDeclaredMethods() {
+		return declaredMethods;
+	}
+
+	/**
+	 * @return All constructors declared by this class, of any access
+	 */
+	public List<MethodSymbol> getDeclaredConstructors() {
+		return declaredConstructors;
+	}
+
+	/**
+	 * @return The public constructors declared by this class
+	 */
+	public List<MethodSymbol> getConstructors() {
+		return constructors;
+	}
+
+	@Override
+	public String toString() {
+		return getClassName();
+	}
+}
@@ -0,0 +1,216 @@
+package water.compiler.symbol;
+
+import org.objectweb.asm.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the signature of a class file into a compact symbol record, which {@link ClassSymbol#decode(byte[])} reads back.
+ * The {@link water.runtime.annotation.Nullable} annotations of fields, methods, and parameters are kept, so that nullability is not lost.
+ *
+ * A record is written with a {@link DataOutputStream}, as: <br/>
+ * name, access, superclass ("" for none), interfaces, simple name, fields, methods <br/>
+ * Each field is its access, name, descriptor, and nullable dimensions.
+ * Each method is its access, name, descriptor, the nullable dimensions of its return type, and those of each parameter.
+ * Nullable dimensions are a count followed by that many values, with a count of -1 if the type is not annotated.
+ *
+ * A reader may also be visited directly, as {@link SymbolWriter} does, rather than by reading a class file.
+ * Members are recorded in the order they are visited, which is the order a class file would be written in.
+ */
+class ClassSymbolReader extends ClassVisitor {
+	private static final String NULLABLE_DESCRIPTOR = "Lwater/runtime/annotation/Nullable;";
+
+	private String name;
+	private int access;
+	private String superName;
+	private String[] interfaces;
+	private String simpleName;
+	private final List<RawField> fields = new ArrayList<>();
+	private final List<RawMethod> methods = new ArrayList<>();
+
+	/** A field, whose nullable dimensions are filled in as its annotations are visited */
+	private static class RawField {
+		private final int access;
+		private final String name;
+		private final String descriptor;
+		private int[] nullable;
+
+		RawField(int access, String name, String descriptor) {
+			this.access = access;
+			this.name = name;
+			this.descriptor = descriptor;
+		}
+	}
+
+	/** A method, whose nullable dimensions are filled in as its annotations are visited */
+	private static class RawMethod {
+		private final int access;
+		private final String name;
+		private final String descriptor;
+		private int[] nullableReturn;
+		private final int[][] nullableParameters;
+
+		RawMethod(int access, String name, String descriptor) {
+			this.access = access;
+			this.name = name;
+			this.descriptor = descriptor;
+			this.nullableParameters = new int[Type.getArgumentTypes(descriptor).length][];
+		}
+	}
+
+	ClassSymbolReader() {
+		super(Opcodes.ASM9);
+	}
+
+	/**
+	 * Reads a class file into a symbol record. Method bodies are skipped.
+	 * @param classFile The byte[] representation of the class
+	 * @return The symbol record
+	 */
+	static byte[] encode(byte[] classFile) {
+		ClassSymbolReader reader = new ClassSymbolReader();
+		new ClassReader(classFile).accept(reader, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		return reader.toRecord();
+	}
+
+	/**
+	 * @return The symbol record of the class visited so far
+	 */
+	byte[] toRecord() {
+		ByteArrayOutputStream record = new ByteArrayOutputStream();
+		try(DataOutputStream out = new DataOutputStream(record)) {
+			write(out);
+		} catch (IOException e) {
+			// Only written to memory
+			throw new UncheckedIOException(e);
+		}
+		return record.toByteArray();
+	}
+
+	private void write(DataOutputStream out) throws IOException {
+		out.writeUTF(name);
+		out.writeInt(access);
+		out.writeUTF(superName == null ? "" : superName);
+		out.writeInt(interfaces.length);
+		for(String superInterface : interfaces) {
+			out.writeUTF(superInterface);
+		}
+		out.writeUTF(simpleName);
+
+		out.writeInt(fields.size());
+		for(RawField field : fields) {
+			out.writeInt(field.access);
+			out.writeUTF(field.name);
+			out.writeUTF(field.descriptor);
+			writeNullable(out, field.nullable);
+		}
+
+		out.writeInt(methods.size());
+		for(RawMethod method : methods) {
+			out.writeInt(method.access);
+			out.writeUTF(method.name);
+			out.writeUTF(method.descriptor);
+			writeNullable(out, method.nullableReturn);
+			for(int[] nullable : method.nullableParameters) {
+				writeNullable(out, nullable);
+			}
+		}
+	}
+
+	private static void writeNullable(DataOutputStream out, int[] nullable) throws IOException {
+		if(nullable == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(nullable.length);
+		for(int dimension : nullable) {
+			out.writeInt(dimension);
+		}
+	}
+
+	@Override
+	public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+		this.name = name;
+		this.access = access;
+		this.superName = superName;
+		this.interfaces = interfaces == null ? new String[0] : interfaces;
+		this.simpleName = name.substring(name.lastIndexOf('/') + 1);
+	}
+
+	@Override
+	public void visitInnerClass(String name, String outerName, String innerName, int access) {
+		// A nested class is named in source by its inner name, rather than its binary name
+		if(name.equals(this.name)) {
+			simpleName = innerName == null ? "" : innerName;
+		}
+	}
+
+	@Override
+	public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+		RawField field = new RawField(access, name, descriptor);
+		fields.add(field);
+
+		return new FieldVisitor(Opcodes.ASM9) {
+			@Override
+			public AnnotationVisitor visitAnnotation(String annotationDescriptor, boolean visible) {
+				if(!annotationDescriptor.equals(NULLABLE_DESCRIPTOR)) return null;
+				field.nullable = new int[0];
+				return new NullableVisitor(d -> field.nullable = d);
+			}
+		};
+	}
+
+	@Override
+	public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+		RawMethod method = new RawMethod(access, name, descriptor);
+		methods.add(method);
+
+		return new MethodVisitor(Opcodes.ASM9) {
+			private int annotableParameterCount = 0;
+
+			@Override
+			public AnnotationVisitor visitAnnotation(String annotationDescriptor, boolean visible) {
+				if(!annotationDescriptor.equals(NULLABLE_DESCRIPTOR)) return null;
+				method.nullableReturn = new int[0];
+				return new NullableVisitor(d -> method.nullableReturn = d);
+			}
+
+			@Override
+			public void visitAnnotableParameterCount(int parameterCount, boolean visible) {
+				if(visible) annotableParameterCount = parameterCount;
+			}
+
+			@Override
+			public AnnotationVisitor visitParameterAnnotation(int parameter, String annotationDescriptor, boolean visible) {
+				if(!annotationDescriptor.equals(NULLABLE_DESCRIPTOR) || parameter >= method.nullableParameters.length) return null;
+				// A class file only keeps the annotations of the first 'annotable' parameters, so neither does a visited record
+				if(annotableParameterCount != 0 && parameter >= annotableParameterCount) return null;
+				method.nullableParameters[parameter] = new int[0];
+				return new NullableVisitor(d -> method.nullableParameters[parameter] = d);
+			}
+		};
+	}
+
+	/**
+	 * Reads the nullable dimensions ('d') of a {@link water.runtime.annotation.Nullable} annotation.
+	 */
+	private static class NullableVisitor extends AnnotationVisitor {
+		private final Consumer<int[]> dimensions;
+
+		NullableVisitor(Consumer<int[]> dimensions) {
+			super(Opcodes.ASM9);
+			this.dimensions = dimensions;
+		}
+
+		@Override
+		public void visit(String name, Object value) {
+			if(name.equals("d") && value instanceof int[] d) dimensions.accept(d);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package water.compiler.symbol;
+
+import org.objectweb.asm.Opcodes;
+import water.compiler.util.WaterType;
+
+/**
+ * A field, as read from a class file.
+ *
+ * @param owner The internal name of the class which declares the field
+ * @param access The access flags of the field
+ * @param name The name of the field
+ * @param descriptor The descriptor of the field
+ * @param type The type of the field, including any nullability given by its annotation
+ */
+public record FieldSymbol(String owner, int access, String name, String descriptor, WaterType type) {
+
+	public boolean isStatic() {
+		return (access & Opcodes.ACC_STATIC) != 0;
+	}
+
+	public boolean isPublic() {
+		return (access & Opcodes.ACC_PUBLIC) != 0;
+	}
+
+	public boolean isFinal() {
+		return (access & Opcodes.ACC_FINAL) != 0;
+	}
+}
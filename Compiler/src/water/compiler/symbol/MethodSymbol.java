@@ -0,0 +1,44 @@
+package water.compiler.symbol;
+
+import org.objectweb.asm.Opcodes;
+import water.compiler.util.WaterType;
+
+/**
+ * A method or constructor, as read from a class file.
+ *
+ * @param owner The internal name of the class which declares the method
+ * @param access The access flags of the method
+ * @param name The name of the method, which is "&lt;init&gt;" for constructors
+ * @param descriptor The descriptor of the method
+ * @param type The method type, including any nullability given by the annotations of its parameters and return type
+ */
+public record MethodSymbol(String owner, int access, String name, String descriptor, WaterType type) {
+
+	public boolean isStatic() {
+		return (access & Opcodes.ACC_STATIC) != 0;
+	}
+
+	public boolean isPublic() {
+		return (access & Opcodes.ACC_PUBLIC) != 0;
+	}
+
+	public boolean isPrivate() {
+		return (access & Opcodes.ACC_PRIVATE) != 0;
+	}
+
+	public boolean isProtected() {
+		return (access & Opcodes.ACC_PROTECTED) != 0;
+	}
+
+	public boolean isConstructor() {
+		return name.equals("<init>");
+	}
+
+	/**
+	 * Tests if the method is generated by the Java compiler, such as a bridge method, and so cannot be called from source.
+	 * @return If the method is synthetic
+	 */
+	public boolean isSynthetic() {
+		return (access & Opcodes.ACC_SYNTHETIC) != 0;
+	}
+}
@@ -0,0 +1,22 @@
+package water.compiler.symbol;
+
+import water.compiler.util.WaterType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Identifies a call for which an overload has been chosen, so that the same call elsewhere reuses the choice.
+ *
+ * @param owner The internal name of the class the method is called on
+ * @param name The name of the method, which is "&lt;init&gt;" for constructors
+ * @param isStatic If the method is called statically
+ * @param argumentTypes The types of the arguments, including their nullability
+ */
+public record OverloadKey(String owner, String name, boolean isStatic, List<String> argumentTypes) {
+
+	public OverloadKey(String owner, String name, boolean isStatic, WaterType[] argumentTypes) {
+		// The string form of a type describes its nullability at every dimension, which equality does not
+		this(owner, name, isStatic, Arrays.stream(argumentTypes).map(WaterType::toString).toList());
+	}
+}
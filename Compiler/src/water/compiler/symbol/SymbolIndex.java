@@ -0,0 +1,153 @@
+package water.compiler.symbol;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An on-disk index of the symbol records of one classpath container (a jar, or the JDK's runtime image),
+ * so that its class files are only parsed by the first build which uses them.
+ *
+ * The file is a header (magic, version, and the length of the directory), then the directory -
+ * each class's internal name with the offset and length of its record - then the records themselves.
+ * The file is memory-mapped, and records are read straight from the mapping as they are looked up.
+ * Records read from class files during a build are held in memory until the index is saved.
+ */
+class SymbolIndex {
+	private static final int MAGIC = 0x57545349;
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = 12;
+
+	private final Path path;
+	/** The records of the file as last read or saved */
+	private volatile Mapping mapping;
+	/** The records which are not yet in the file, keyed by internal name */
+	private final Map<String, byte[]> added = new ConcurrentHashMap<>();
+
+	private record Entry(int offset, int length) {}
+	private record Mapping(Map<String, Entry> directory, ByteBuffer records) {}
+
+	private SymbolIndex(Path path, Mapping mapping) {
+		this.path = path;
+		this.mapping = mapping;
+	}
+
+	/**
+	 * Opens an index. If the file does not exist or cannot be read, the index starts empty.
+	 * @param path The path of the index file
+	 * @return The index
+	 */
+	static SymbolIndex open(Path path) {
+		return new SymbolIndex(path, map(path));
+	}
+
+	private static Mapping map(Path path) {
+		if(!Files.isRegularFile(path)) return new Mapping(Map.of(), null);
+
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+				return new Mapping(Map.of(), null);
+			}
+
+			byte[] directoryBytes = new byte[buffer.getInt(8)];
+			buffer.get(HEADER_SIZE, directoryBytes);
+
+			Map<String, Entry> directory = new HashMap<>();
+			try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(directoryBytes))) {
+				int count = in.readInt();
+				for(int i = 0; i < count; i++) {
+					directory.put(in.readUTF(), new Entry(in.readInt(), in.readInt()));
+				}
+			}
+
+			ByteBuffer records = buffer.slice(HEADER_SIZE + directoryBytes.length, buffer.limit() - HEADER_SIZE - directoryBytes.length);
+			return new Mapping(directory, records);
+		} catch (IOException | RuntimeException e) {
+			// A damaged index only means that class files are parsed again
+			return new Mapping(Map.of(), null);
+		}
+	}
+
+	/**
+	 * Finds the record of a class.
+	 * @param name The internal name of the class
+	 * @return The symbol record, or null if the class is not indexed
+	 */
+	byte[] get(String name) {
+		Mapping mapping = this.mapping;
+
+		Entry entry = mapping.directory().get(name);
+		if(entry == null) return added.get(name);
+
+		byte[] record = new byte[entry.length()];
+		mapping.records().get(entry.offset(), record);
+		return record;
+	}
+
+	/**
+	 * Adds the record of a class, which is written to the file when the index is saved.
+	 * @param name The internal name of the class
+	 * @param record The symbol record
+	 */
+	void put(String name, byte[] record) {
+		added.put(name, record);
+	}
+
+	/**
+	 * Writes every record added since the index was opened, replacing the file.
+	 * Nothing is written if no records were added.
+	 *
+	 * @throws IOException If the index could not be written
+	 */
+	synchronized void save() throws IOException {
+		if(added.isEmpty()) return;
+
+		Map<String, byte[]> records = new TreeMap<>();
+		for(String name : mapping.directory().keySet()) {
+			records.put(name, get(name));
+		}
+		records.putAll(added);
+
+		ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+		try(DataOutputStream directory = new DataOutputStream(directoryBytes)) {
+			directory.writeInt(records.size());
+			int offset = 0;
+			for(Map.Entry<String, byte[]> record : records.entrySet()) {
+				directory.writeUTF(record.getKey());
+				directory.writeInt(offset);
+				directory.writeInt(record.getValue().length);
+				offset += record.getValue().length;
+			}
+		}
+
+		Path parent = path.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(directoryBytes.size());
+			directoryBytes.writeTo(out);
+			for(byte[] record : records.values()) {
+				out.write(record);
+			}
+		}
+
+		// Other builds may be reading the previous file - it remains readable to them until they unmap it
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		mapping = map(path);
+		added.keySet().removeAll(mapping.directory().keySet());
+	}
+}
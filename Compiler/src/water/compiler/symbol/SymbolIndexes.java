@@ -0,0 +1,110 @@
+package water.compiler.symbol;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link SymbolIndex}es of the containers on the classpath, stored in one directory.
+ *
+ * Each index is named by a hash of its container's path, size and modification time, so a changed jar or JDK is given a new index,
+ * rather than reading stale symbols, without the container itself being read. Classes from directories are not indexed, as they are expected to change between builds.
+ */
+public class SymbolIndexes {
+	private final Path directory;
+	/** The index of each container, keyed by the container's URL, with an empty value if it is not indexed */
+	private final Map<String, Optional<SymbolIndex>> indexes = new ConcurrentHashMap<>();
+
+	/**
+	 * @param directory The directory which index files are stored in
+	 */
+	public SymbolIndexes(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Finds the index of the container which a class file was found in.
+	 * @param resource The URL of the class file
+	 * @return The index, or null if the container is not indexed
+	 */
+	SymbolIndex forResource(URL resource) {
+		String url = resource.toString();
+
+		if(url.startsWith("jrt:")) {
+			return indexes.computeIfAbsent("jrt:", k -> Optional.ofNullable(openRuntimeIndex())).orElse(null);
+		}
+		if(url.startsWith("jar:file:") && url.contains("!/")) {
+			String container = url.substring("jar:".length(), url.indexOf("!/"));
+			return indexes.computeIfAbsent(container, k -> Optional.ofNullable(openJarIndex(container))).orElse(null);
+		}
+		return null;
+	}
+
+	private SymbolIndex openRuntimeIndex() {
+		// The runtime image is only replaced along with the JDK, so its identity is enough to tell versions apart
+		Path modules = Path.of(System.getProperty("java.home"), "lib", "modules");
+		try {
+			String identity = String.join("\n",
+					System.getProperty("java.home"),
+					System.getProperty("java.runtime.version"),
+					String.valueOf(Files.size(modules)),
+					String.valueOf(Files.getLastModifiedTime(modules).toMillis())
+			);
+			return SymbolIndex.open(directory.resolve("jdk-%s.idx".formatted(hash(identity.getBytes(StandardCharsets.UTF_8)))));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private SymbolIndex openJarIndex(String container) {
+		try {
+			Path jar = Path.of(new URL(container).toURI()).toAbsolutePath();
+
+			// As with the runtime image, a jar is identified by its path, size and modification time, so it is not read to be indexed
+			String identity = String.join("\n",
+					jar.toString(),
+					String.valueOf(Files.size(jar)),
+					String.valueOf(Files.getLastModifiedTime(jar).toMillis())
+			);
+
+			String name = jar.getFileName().toString().replaceFirst("\\.jar$", "");
+			return SymbolIndex.open(directory.resolve("%s-%s.idx".formatted(name, hash(identity.getBytes(StandardCharsets.UTF_8)))));
+		} catch (IOException | URISyntaxException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Hashes the identity of a container, to name its index. A 64-bit FNV-1a hash is used rather than a {@link java.security.MessageDigest},
+	 * as loading the JVM's security providers would cost more than the index saves.
+	 */
+	private static String hash(byte[] content) {
+		long hash = 0xcbf29ce484222325L;
+		for(byte b : content) {
+			hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+		}
+		return HexFormat.of().toHexDigits(hash);
+	}
+
+	/**
+	 * Writes every index which has had records added.
+	 * As the indexes only make reading symbols faster, an index which cannot be written is skipped.
+	 */
+	public void save() {
+		for(Optional<SymbolIndex> index : indexes.values()) {
+			if(index.isEmpty()) continue;
+			try {
+				index.get().save();
+			} catch (IOException e) {
+				// The index will be built again by the next build
+			}
+		}
+	}
+}
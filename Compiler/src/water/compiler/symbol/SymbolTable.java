@@ -0,0 +1,333 @@
+package water.compiler.symbol;
+
+import org.objectweb.asm.Type;
+import water.compiler.timing.BuildTimings;
+import water.compiler.util.WaterType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves classes to their {@link ClassSymbol}s by reading class files, without loading them into the JVM.
+ *
+ * A table either reads class files as resources of a class loader (the JDK and the classpath),
+ * or holds the symbol records of the classes being compiled in memory, falling back to a parent table.
+ * Symbols are read once, and then kept for the lifetime of the table. Tables are safe to use from multiple threads.
+ * Symbols of the JDK and of jars can also be kept between builds, in {@link SymbolIndexes}.
+ */
+public class SymbolTable {
+	private final SymbolTable parent;
+	private final ClassLoader classLoader;
+	/** The indexes which classpath symbols are read from and added to, or null if symbols are not indexed */
+	private final SymbolIndexes indexes;
+	/** The symbol records of the classes held in memory, keyed by internal name */
+	private final Map<String, byte[]> records;
+	/** Every symbol which has been looked up, with an empty value if the class does not exist */
+	private final Map<String, Optional<ClassSymbol>> symbols = new ConcurrentHashMap<>();
+	/** The public methods of each class, as given by {@link #getMethods(ClassSymbol)}, keyed by internal name */
+	private final Map<String, List<MethodSymbol>> methods = new ConcurrentHashMap<>();
+	/** The overload chosen for each call which has been resolved */
+	private final Map<OverloadKey, MethodSymbol> overloads = new ConcurrentHashMap<>();
+	/** The common superclass of each pair of classes merged when computing frames */
+	private final Map<ClassPair, String> commonSuperClasses = new ConcurrentHashMap<>();
+	/** Counts the resolutions made through this table, or null if they are not counted */
+	private final BuildTimings timings;
+
+	/**
+	 * Creates a table which reads class files from a class loader.
+	 * @param classLoader The loader to read class files from, which acts as the classpath
+	 */
+	public SymbolTable(ClassLoader classLoader) {
+		this(classLoader, null);
+	}
+
+	/**
+	 * Creates a table which reads class files from a class loader, keeping the symbols of the JDK and jars in on-disk indexes.
+	 * @param classLoader The loader to read class files from, which acts as the classpath
+	 * @param indexes The indexes to read symbols from, and to add newly read symbols to, or null to always read class files
+	 */
+	public SymbolTable(ClassLoader classLoader, SymbolIndexes indexes) {
+		this.parent = null;
+		this.classLoader = classLoader == null ? ClassLoader.getSystemClassLoader() : classLoader;
+		this.indexes = indexes;
+		this.records = Map.of();
+		this.timings = null;
+	}
+
+	/**
+	 * Creates a table which holds classes in memory, resolving all other classes through a parent table.
+	 * @param parent The table to resolve all other classes through
+	 * @param records The symbol records of classes which are only decoded once they are resolved, keyed by internal name
+	 */
+	public SymbolTable(SymbolTable parent, Map<String, byte[]> records) {
+		this(parent, records, null);
+	}
+
+	/**
+	 * Creates a table which holds classes in memory, resolving all other classes through a parent table.
+	 * @param parent The table to resolve all other classes through
+	 * @param records The symbol records of classes which are only decoded once they are resolved, keyed by internal name
+	 * @param timings Counts the classes resolved and defined, and the overloads looked up, through this table, or null to not count them
+	 */
+	public SymbolTable(SymbolTable parent, Map<String, byte[]> records, BuildTimings timings) {
+		this.parent = parent;
+		this.classLoader = parent.classLoader;
+		this.indexes = null;
+		this.records = new ConcurrentHashMap<>(records);
+		this.timings = timings;
+	}
+
+	/**
+	 * Adds a generated class to the table, replacing any class with the same name.
+	 * @param name The internal name of the class
+	 * @param record The symbol record of the class, as written by a {@link SymbolWriter}
+	 * @return The symbol of the class
+	 */
+	public ClassSymbol define(String name, byte[] record) {
+		if(parent == null) throw new IllegalStateException("Classes cannot be defined in a classpath symbol table");
+
+		if(timings != null) timings.countClassDefinition();
+
+		ClassSymbol symbol = ClassSymbol.decode(record);
+		records.put(name, record);
+		symbols.put(name, Optional.of(symbol));
+
+		// Any class may inherit from, or be an argument to, the class being replaced
+		methods.clear();
+		overloads.clear();
+		commonSuperClasses.clear();
+		return symbol;
+	}
+
+	/**
+	 * Finds the symbol of a class.
+	 * @param name The internal name of the class
+	 * @return The symbol, or null if the class does not exist
+	 */
+	public ClassSymbol lookup(String name) {
+		if(timings != null) timings.countClassResolution();
+		return symbols.computeIfAbsent(name, this::read).orElse(null);
+	}
+
+	/**
+	 * Resolves a class from its fully qualified name, as {@link Class#forName(String)} would.
+	 * @param className The fully qualified name of the class (such as "java.lang.String")
+	 * @return The symbol of the class
+	 * @throws ClassNotFoundException If the class cannot be found
+	 */
+	public ClassSymbol forName(String className) throws ClassNotFoundException {
+		ClassSymbol symbol = className.indexOf('/') == -1 ? lookup(className.replace('.', '/')) : null;
+		if(symbol == null) throw new ClassNotFoundException(className);
+		return symbol;
+	}
+
+	private ClassSymbol resolve(String name) throws ClassNotFoundException {
+		return forName(name.replace('/', '.'));
+	}
+
+	private Optional<ClassSymbol> read(String name) {
+		byte[] record = records.get(name);
+		if(record != null) return Optional.of(ClassSymbol.decode(record));
+		if(parent != null) return Optional.ofNullable(parent.lookup(name));
+
+		if(indexes == null) {
+			try(InputStream in = classLoader.getResourceAsStream(name + ".class")) {
+				return in == null ? Optional.empty() : Optional.of(ClassSymbol.read(in.readAllBytes()));
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failure reading class '%s'".formatted(name.replace('/', '.')), e);
+			}
+		}
+
+		// The class is only searched for once - the container it was found in gives its index, and if it is not indexed, its class file
+		URL resource = classLoader.getResource(name + ".class");
+		if(resource == null) return Optional.empty();
+
+		SymbolIndex index = indexes.forResource(resource);
+		byte[] indexed = index == null ? null : index.get(name);
+		if(indexed != null) return Optional.of(ClassSymbol.decode(indexed));
+
+		try(InputStream in = resource.openStream()) {
+			ClassSymbol symbol = ClassSymbol.read(in.readAllBytes());
+			if(index != null) index.put(name, symbol.getRecord());
+			return Optional.of(symbol);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failure reading class '%s'".formatted(name.replace('/', '.')), e);
+		}
+	}
+
+	/**
+	 * Gets all public methods of a class, including those inherited from superclasses and interfaces,
+	 * as {@link Class#getMethods()} would. Methods are ordered from the most specific class,
+	 * and a method overridden by a more specific class is not repeated.
+	 *
+	 * @param klass The class
+	 * @return The public methods
+	 * @throws ClassNotFoundException If a superclass or interface cannot be found
+	 */
+	public List<MethodSymbol> getMethods(ClassSymbol klass) throws ClassNotFoundException {
+		List<MethodSymbol> cached = methods.get(klass.getName());
+		if(cached != null) return cached;
+
+		Map<String, MethodSymbol> collected = new LinkedHashMap<>();
+		collectMethods(klass, true, collected, new HashSet<>());
+
+		List<MethodSymbol> classMethods = List.copyOf(collected.values());
+		methods.put(klass.getName(), classMethods);
+		return classMethods;
+	}
+
+	private void collectMethods(ClassSymbol klass, boolean includeStatic, Map<String, MethodSymbol> methods, Set<String> visited) throws ClassNotFoundException {
+		if(!visited.add(klass.getName())) return;
+
+		for(MethodSymbol method : klass.getDeclaredMethods()) {
+			if(!method.isPublic() || method.isSynthetic()) continue;
+			// Static methods of interfaces are not inherited
+			if(method.isStatic() && klass.isInterface() && !includeStatic) continue;
+			methods.putIfAbsent(method.name() + method.descriptor(), method);
+		}
+
+		// Interfaces do not inherit the methods of java.lang.Object
+		if(klass.getSuperName() != null && !klass.isInterface()) {
+			collectMethods(resolve(klass.getSuperName()), false, methods, visited);
+		}
+		for(String superInterface : klass.getInterfaces()) {
+			collectMethods(resolve(superInterface), false, methods, visited);
+		}
+	}
+
+	/**
+	 * Finds the overload previously chosen for a call.
+	 * Every call is looked up here before it is resolved, so this is what is counted as a method resolution.
+	 * @param key The call
+	 * @return The chosen method, or null if the call has not been resolved
+	 */
+	public MethodSymbol getOverload(OverloadKey key) {
+		if(timings != null) timings.countMethodResolution();
+		return overloads.get(key);
+	}
+
+	/**
+	 * Records the overload chosen for a call. This is forgotten if any class in the table is replaced.
+	 * @param key The call
+	 * @param method The chosen method
+	 */
+	public void putOverload(OverloadKey key, MethodSymbol method) {
+		overloads.put(key, method);
+	}
+
+	/**
+	 * Finds a public method with no parameters, including those inherited, as {@link Class#getMethod(String, Class[])} would.
+	 * @param klass The class
+	 * @param name The name of the method
+	 * @return The method
+	 * @throws NoSuchMethodException If the class has no such method
+	 * @throws ClassNotFoundException If a superclass or interface cannot be found
+	 */
+	public MethodSymbol getMethod(ClassSymbol klass, String name) throws NoSuchMethodException, ClassNotFoundException {
+		for(MethodSymbol method : getMethods(klass)) {
+			if(method.name().equals(name) && method.descriptor().startsWith("()")) return method;
+		}
+		throw new NoSuchMethodException(klass.getClassName() + "." + name + "()");
+	}
+
+	/**
+	 * Tests if a value of one type can be assigned to another, as {@link Class#isAssignableFrom(Class)} would.
+	 * Nullability is not considered.
+	 *
+	 * @param to The type being assigned to
+	 * @param from The type of the value
+	 * @return If the value can be assigned
+	 * @throws ClassNotFoundException If either type represents a class which cannot be resolved
+	 */
+	public boolean isAssignableFrom(WaterType to, WaterType from) throws ClassNotFoundException {
+		return isAssignableFrom(Type.getType(to.getDescriptor()), Type.getType(from.getDescriptor()));
+	}
+
+	private boolean isAssignableFrom(Type to, Type from) throws ClassNotFoundException {
+		if(to.getSort() == Type.OBJECT) resolve(to.getInternalName());
+		if(from.getSort() == Type.OBJECT) resolve(from.getInternalName());
+
+		if(to.equals(from)) return true;
+
+		if(to.getSort() == Type.OBJECT) {
+			if(from.getSort() == Type.ARRAY) {
+				String name = to.getInternalName();
+				return name.equals("java/lang/Object") || name.equals("java/lang/Cloneable") || name.equals("java/io/Serializable");
+			}
+			if(from.getSort() != Type.OBJECT) return false;
+
+			return to.getInternalName().equals("java/lang/Object") || isSubclass(resolve(from.getInternalName()), to.getInternalName(), new HashSet<>());
+		}
+
+		if(to.getSort() == Type.ARRAY && from.getSort() == Type.ARRAY) {
+			Type toComponent = Type.getType(to.getDescriptor().substring(1));
+			Type fromComponent = Type.getType(from.getDescriptor().substring(1));
+
+			boolean toReference = toComponent.getSort() == Type.OBJECT || toComponent.getSort() == Type.ARRAY;
+			boolean fromReference = fromComponent.getSort() == Type.OBJECT || fromComponent.getSort() == Type.ARRAY;
+			if(!toReference || !fromReference) return toComponent.equals(fromComponent);
+
+			return isAssignableFrom(toComponent, fromComponent);
+		}
+
+		return false;
+	}
+
+	private boolean isSubclass(ClassSymbol klass, String superName, Set<String> visited) throws ClassNotFoundException {
+		if(klass.getName().equals(superName)) return true;
+		if(!visited.add(klass.getName())) return false;
+
+		if(klass.getSuperName() != null && isSubclass(resolve(klass.getSuperName()), superName, visited)) return true;
+
+		for(String superInterface : klass.getInterfaces()) {
+			if(isSubclass(resolve(superInterface), superName, visited)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return The loader which class files are read from
+	 */
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	/**
+	 * Finds the most specific superclass of two classes, as {@link org.objectweb.asm.ClassWriter#getCommonSuperClass(String, String)} would,
+	 * but without loading either class. If either is an interface, and neither is assignable to the other, this is java.lang.Object.
+	 *
+	 * @param type1 The internal name of the first class
+	 * @param type2 The internal name of the second class
+	 * @return The internal name of the common superclass
+	 * @throws ClassNotFoundException If either class, or one of their superclasses or interfaces, cannot be found
+	 */
+	public String getCommonSuperClass(String type1, String type2) throws ClassNotFoundException {
+		ClassPair pair = new ClassPair(type1, type2);
+		String cached = commonSuperClasses.get(pair);
+		if(cached != null) return cached;
+
+		ClassSymbol class1 = resolve(type1);
+		ClassSymbol class2 = resolve(type2);
+
+		String common;
+		if(isSubclass(class2, type1, new HashSet<>())) common = type1;
+		else if(isSubclass(class1, type2, new HashSet<>())) common = type2;
+		else if(class1.isInterface() || class2.isInterface()) common = "java/lang/Object";
+		else {
+			ClassSymbol superClass = class1;
+			do {
+				superClass = resolve(superClass.getSuperName());
+			} while(!isSubclass(class2, superClass.getName(), new HashSet<>()));
+			common = superClass.getName();
+		}
+
+		commonSuperClasses.put(pair, common);
+		return common;
+	}
+
+	private record ClassPair(String first, String second) {}
+}
@@ -0,0 +1,30 @@
+package water.compiler.symbol;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Writes the signature of a class straight to a symbol record, in place of a {@link org.objectweb.asm.ClassWriter}.
+ * Code is discarded as it is visited, so no class file is assembled, and no frames are computed.
+ *
+ * This is used for the templates and preprocessed classes of the files being compiled, which are only ever resolved as symbols.
+ */
+public class SymbolWriter extends ClassVisitor {
+	private final ClassSymbolReader reader;
+
+	public SymbolWriter() {
+		this(new ClassSymbolReader());
+	}
+
+	private SymbolWriter(ClassSymbolReader reader) {
+		super(Opcodes.ASM9, reader);
+		this.reader = reader;
+	}
+
+	/**
+	 * @return The symbol record of the class, which {@link SymbolTable#define(String, byte[])} accepts
+	 */
+	public byte[] toRecord() {
+		return reader.toRecord();
+	}
+}
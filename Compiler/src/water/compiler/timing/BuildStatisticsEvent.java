@@ -0,0 +1,28 @@
+package water.compiler.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by JFR once for each build, spanning the whole build.
+ */
+@Name("water.compiler.Build")
+@Label("Compiler Build")
+@Category("Water Compiler")
+@Description("A build of a set of source files, with the work done by the compiler's symbol tables")
+class BuildStatisticsEvent extends Event {
+	@Label("Files")
+	int files;
+
+	@Label("Class Resolutions")
+	long classResolutions;
+
+	@Label("Method Resolutions")
+	long methodResolutions;
+
+	@Label("Classes Defined")
+	long classesDefined;
+}
@@ -0,0 +1,261 @@
+package water.compiler.timing;
+
+import jdk.jfr.FlightRecorder;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures where the time of a build goes - each {@link Phase} of each file - and counts the work done by its symbol tables.
+ *
+ * Every phase is also recorded as a JFR event ("water.compiler.Phase"), and the build as a whole as "water.compiler.Build",
+ * so a build can be profiled with a flight recording, without passing '--timings'.
+ * Phases are only measured if timings are being recorded, or a flight recording has enabled the phase event.
+ * Loading an event class initializes JFR, which takes longer than a small build, so events are only created
+ * if JFR was already running when the build started, and an unprofiled build only pays for the counters.
+ * This is safe to use from multiple threads.
+ */
+public class BuildTimings {
+	/** The number of files printed by {@link #print(PrintStream)}, from the slowest */
+	private static final int SLOWEST_FILES = 10;
+
+	private static final Timer NOT_MEASURED = new Timer(null, null, null, null);
+
+	private final boolean recording;
+	/** If JFR is running, so events are created */
+	private final boolean profiled;
+	private final boolean measuring;
+	private final long startTime = System.nanoTime();
+	private long wallTime = -1;
+
+	/** The nanoseconds spent in each phase of each file, indexed by phase ordinal */
+	private final Map<Path, AtomicLongArray> fileTimes = new ConcurrentHashMap<>();
+
+	private final LongAdder classResolutions = new LongAdder();
+	private final LongAdder methodResolutions = new LongAdder();
+	private final LongAdder classesDefined = new LongAdder();
+
+	/** The event of the build, or null if JFR is not running */
+	private final BuildStatisticsEvent buildEvent;
+
+	/**
+	 * Starts timing a build.
+	 * @param recording If the time of each phase should be kept, to be printed once the build has finished
+	 */
+	public BuildTimings(boolean recording) {
+		this.recording = recording;
+		this.profiled = FlightRecorder.isInitialized();
+		this.measuring = recording || (profiled && new PhaseEvent().isEnabled());
+
+		this.buildEvent = profiled ? new BuildStatisticsEvent() : null;
+		if(buildEvent != null) buildEvent.begin();
+	}
+
+	/**
+	 * @return If the time of each phase is being kept to be printed
+	 */
+	public boolean isRecording() {
+		return recording;
+	}
+
+	/**
+	 * @return If phases are being measured, so are worth separating where they would otherwise be interleaved
+	 */
+	public boolean isMeasuring() {
+		return measuring;
+	}
+
+	/**
+	 * A phase of a file, which may fail with a checked exception
+	 * @param <E> The exception the phase may throw
+	 */
+	@FunctionalInterface
+	public interface PhaseAction<E extends Exception> {
+		void run() throws E;
+	}
+
+	/**
+	 * A phase of a file which produces a result, and may fail with a checked exception
+	 * @param <T> The result of the phase
+	 * @param <E> The exception the phase may throw
+	 */
+	@FunctionalInterface
+	public interface PhaseCall<T, E extends Exception> {
+		T call() throws E;
+	}
+
+	/**
+	 * Runs and measures a phase.
+	 * @param phase The phase
+	 * @param file The source file the phase is working on
+	 * @param action The work of the phase
+	 * @throws E If the phase failed, in which case the time until it failed is still measured
+	 */
+	public <E extends Exception> void run(Phase phase, Path file, PhaseAction<E> action) throws E {
+		Timer timer = start(phase, file);
+		try {
+			action.run();
+		} finally {
+			timer.stop();
+		}
+	}
+
+	/**
+	 * Runs and measures a phase which produces a result.
+	 * @param phase The phase
+	 * @param file The source file the phase is working on
+	 * @param action The work of the phase
+	 * @return The result of the phase
+	 * @throws E If the phase failed, in which case the time until it failed is still measured
+	 */
+	public <T, E extends Exception> T call(Phase phase, Path file, PhaseCall<T, E> action) throws E {
+		Timer timer = start(phase, file);
+		try {
+			return action.call();
+		} finally {
+			timer.stop();
+		}
+	}
+
+	private Timer start(Phase phase, Path file) {
+		if(!measuring) return NOT_MEASURED;
+
+		PhaseEvent event = profiled ? new PhaseEvent() : null;
+		if(event != null) event.begin();
+		return new Timer(this, phase, file, event);
+	}
+
+	private void record(Phase phase, Path file, long nanos) {
+		fileTimes.computeIfAbsent(file, f -> new AtomicLongArray(Phase.values().length)).addAndGet(phase.ordinal(), nanos);
+	}
+
+	public void countClassResolution() {
+		classResolutions.increment();
+	}
+
+	public void countMethodResolution() {
+		methodResolutions.increment();
+	}
+
+	public void countClassDefinition() {
+		classesDefined.increment();
+	}
+
+	/**
+	 * Ends the build, recording its JFR event.
+	 * @param files The number of files which were given to the build
+	 */
+	public void finish(int files) {
+		wallTime = System.nanoTime() - startTime;
+
+		if(buildEvent == null) return;
+
+		buildEvent.end();
+		if(buildEvent.shouldCommit()) {
+			buildEvent.files = files;
+			buildEvent.classResolutions = classResolutions.sum();
+			buildEvent.methodResolutions = methodResolutions.sum();
+			buildEvent.classesDefined = classesDefined.sum();
+			buildEvent.commit();
+		}
+	}
+
+	/**
+	 * Prints the total time of each phase, the slowest files, and the counters.
+	 * Phase times are summed over all worker threads, so may add up to more than the wall time of the build.
+	 * @param out Where the timings are printed
+	 */
+	public void print(PrintStream out) {
+		Phase[] phases = Phase.values();
+
+		long[] totals = new long[phases.length];
+		List<Map.Entry<Path, Long>> files = new ArrayList<>();
+
+		for(Map.Entry<Path, AtomicLongArray> file : fileTimes.entrySet()) {
+			long fileTotal = 0;
+			for(Phase phase : phases) {
+				long time = file.getValue().get(phase.ordinal());
+				totals[phase.ordinal()] += time;
+				fileTotal += time;
+			}
+			files.add(Map.entry(file.getKey(), fileTotal));
+		}
+		files.sort(Map.Entry.<Path, Long>comparingByValue(Comparator.reverseOrder()));
+
+		out.println("Timings (ms, summed over worker threads):");
+		long total = 0;
+		for(Phase phase : phases) {
+			out.printf("  %-14s %10.2f%n", phase.getLabel(), millis(totals[phase.ordinal()]));
+			total += totals[phase.ordinal()];
+		}
+		out.printf("  %-14s %10.2f%n", "total", millis(total));
+		if(wallTime >= 0) out.printf("  %-14s %10.2f%n", "wall", millis(wallTime));
+
+		if(!files.isEmpty()) {
+			out.printf("Slowest files (ms):%n  %10s", "total");
+			for(Phase phase : phases) {
+				out.printf(" %12s", phase.getLabel());
+			}
+			out.println("  file");
+
+			for(Map.Entry<Path, Long> file : files.subList(0, Math.min(files.size(), SLOWEST_FILES))) {
+				AtomicLongArray times = fileTimes.get(file.getKey());
+				out.printf("  %10.2f", millis(file.getValue()));
+				for(Phase phase : phases) {
+					out.printf(" %12.2f", millis(times.get(phase.ordinal())));
+				}
+				out.println("  " + file.getKey());
+			}
+		}
+
+		out.println("Counters:");
+		out.printf("  %-20s %10d%n", "class resolutions", classResolutions.sum());
+		out.printf("  %-20s %10d%n", "method resolutions", methodResolutions.sum());
+		out.printf("  %-20s %10d%n", "classes defined", classesDefined.sum());
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	/**
+	 * Measures one phase of one file, from when it is started until it is stopped.
+	 */
+	private static class Timer {
+		private final BuildTimings timings;
+		private final Phase phase;
+		private final Path file;
+		/** The event of the phase, or null if JFR is not running */
+		private final PhaseEvent event;
+		private final long start = System.nanoTime();
+
+		private Timer(BuildTimings timings, Phase phase, Path file, PhaseEvent event) {
+			this.timings = timings;
+			this.phase = phase;
+			this.file = file;
+			this.event = event;
+		}
+
+		void stop() {
+			if(timings == null) return;
+
+			if(timings.recording) timings.record(phase, file, System.nanoTime() - start);
+
+			if(event == null) return;
+
+			event.end();
+			if(event.shouldCommit()) {
+				event.phase = phase.getLabel();
+				event.file = file.toString();
+				event.commit();
+			}
+		}
+	}
+}
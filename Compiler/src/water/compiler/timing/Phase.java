@@ -0,0 +1,26 @@
+package water.compiler.timing;
+
+/**
+ * A stage of compiling a single file, which {@link BuildTimings} measures separately.
+ */
+public enum Phase {
+	LEX("lex"),
+	PARSE("parse"),
+	BUILD_CLASSES("buildClasses"),
+	PREPROCESS("preprocess"),
+	VISIT("visit"),
+	/** Assembling class files from their writers, with {@link org.objectweb.asm.ClassWriter#toByteArray()}, and the symbol records of templates and signatures */
+	TO_BYTE_ARRAY("toByteArray"),
+	/** Passing generated classes to the output, which writes them to disk for the command line compiler */
+	WRITE("write");
+
+	private final String label;
+
+	Phase(String label) {
+		this.label = label;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+}
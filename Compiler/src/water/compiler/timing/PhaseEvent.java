@@ -0,0 +1,22 @@
+package water.compiler.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by JFR for each phase of compiling a file.
+ */
+@Name("water.compiler.Phase")
+@Label("Compiler Phase")
+@Category("Water Compiler")
+@Description("A stage of compiling a single source file")
+class PhaseEvent extends Event {
+	@Label("Phase")
+	String phase;
+
+	@Label("File")
+	String file;
+}
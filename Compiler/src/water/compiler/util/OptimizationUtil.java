@@ -1,6 +1,6 @@
 package water.compiler.util;
 
-import water.compiler.FileContext;
+import water.compiler.compiler.FileContext;
 import water.compiler.compiler.SemanticException;
 import water.compiler.parser.Node;
 import water.compiler.parser.nodes.variable.AssignmentNode;
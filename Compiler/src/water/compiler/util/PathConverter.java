@@ -1,4 +1,4 @@
-package water.compiler;
+package water.compiler.util;
 
 import com.beust.jcommander.IStringConverter;
 import com.beust.jcommander.ParameterException;
@@ -1,4 +1,4 @@
-package water.compiler;
+package water.compiler.util;
 
 import com.beust.jcommander.converters.IParameterSplitter;
 
@@ -5,13 +5,14 @@ import org.objectweb.asm.Opcodes;
 import water.compiler.compiler.Context;
 import water.compiler.compiler.SemanticException;
 import water.compiler.lexer.Token;
+import water.compiler.symbol.ClassSymbol;
+import water.compiler.symbol.FieldSymbol;
+import water.compiler.symbol.MethodSymbol;
+import water.compiler.symbol.OverloadKey;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 
 /**
  * Extra utility for dealing with ASM Type objects.
@@ -139,8 +140,8 @@ public class TypeUtil {
 	 * @param m The method to invoke
 	 * @return The correct opcode
 	 */
-	public static int getInvokeOpcode(Method m) {
-		return Modifier.isStatic(m.getModifiers()) ? Opcodes.INVOKESTATIC : Opcodes.INVOKEVIRTUAL;
+	public static int getInvokeOpcode(MethodSymbol m) {
+		return m.isStatic() ? Opcodes.INVOKESTATIC : Opcodes.INVOKEVIRTUAL;
 	}
 
 	/**
@@ -148,8 +149,8 @@ public class TypeUtil {
 	 * @param f The field to access
 	 * @return The correct opcode
 	 */
-	public static int getAccessOpcode(Field f) {
-		return Modifier.isStatic(f.getModifiers()) ? Opcodes.GETSTATIC : Opcodes.GETFIELD;
+	public static int getAccessOpcode(FieldSymbol f) {
+		return f.isStatic() ? Opcodes.GETSTATIC : Opcodes.GETFIELD;
 	}
 
 	/**
@@ -157,23 +158,44 @@ public class TypeUtil {
 	 * @param f The field to set
 	 * @return The correct opcode
 	 */
-	public static int getMemberPutOpcode(Field f) {
-		return Modifier.isStatic(f.getModifiers()) ? Opcodes.PUTSTATIC : Opcodes.PUTFIELD;
+	public static int getMemberPutOpcode(FieldSymbol f) {
+		return f.isStatic() ? Opcodes.PUTSTATIC : Opcodes.PUTFIELD;
 	}
 
 	/**
 	 * Looks up a class for the given name, using imports to resolve.
 	 * @param name The name of the class
-	 * @param context The context to use for the {@link water.compiler.WaterClassLoader} and imports
-	 * @return The resolved Class
+	 * @param context The context to use for the {@link water.compiler.symbol.SymbolTable} and imports
+	 * @return The symbol of the resolved class
 	 * @throws ClassNotFoundException If the class cannot be resolved
 	 */
-	public static Class<?> classForName(String name, Context context) throws ClassNotFoundException {
+	public static ClassSymbol classForName(String name, Context context) throws ClassNotFoundException {
 		String className = name;
 
 		if(context.getImports().get(name) != null) className = context.getImports().get(name);
 
-		return Class.forName(className, false, context.getLoader());
+		return context.getSymbols().forName(className);
+	}
+
+	/**
+	 * Resolves the most suitable public constructor of a class, given a list of types.
+	 * The choice is reused by every call with the same class and argument types.
+	 *
+	 * @param location The location of the token which leads to the calling of this constructor.
+	 * @param klass The class being constructed.
+	 * @param argTypes The argument types.
+	 * @param context The current context
+	 * @return The most suitable constructor, or null if no public constructor accepts the arguments
+	 * @throws SemanticException If a class cannot be resolved
+	 */
+	public static MethodSymbol getConstructor(Token location, ClassSymbol klass, WaterType[] argTypes, Context context) throws SemanticException {
+		OverloadKey key = new OverloadKey(klass.getName(), "<init>", false, argTypes);
+		MethodSymbol constructor = context.getSymbols().getOverload(key);
+		if(constructor != null) return constructor;
+
+		constructor = getConstructor(location, klass.getConstructors(), argTypes, context);
+		if(constructor != null) context.getSymbols().putOverload(key, constructor);
+		return constructor;
 	}
 
 	/**
@@ -187,14 +209,14 @@ public class TypeUtil {
 	 * @return The most suitable constructor
 	 * @throws SemanticException If a class cannot be resolved
 	 */
-	public static Constructor<?> getConstructor(Token location, Constructor<?>[] constructors, WaterType[] argTypes, Context context) throws SemanticException {
+	public static MethodSymbol getConstructor(Token location, List<MethodSymbol> constructors, WaterType[] argTypes, Context context) throws SemanticException {
 
-		ArrayList<Pair<Integer, Constructor<?>>> possible = new ArrayList<>();
+		ArrayList<Pair<Integer, MethodSymbol>> possible = new ArrayList<>();
 
 		try {
 			out:
-			for (Constructor<?> c : constructors) {
-				WaterType[] expectArgs = WaterType.getType(c).getArgumentTypes();
+			for (MethodSymbol c : constructors) {
+				WaterType[] expectArgs = c.type().getArgumentTypes();
 
 				if (expectArgs.length != argTypes.length) continue;
 
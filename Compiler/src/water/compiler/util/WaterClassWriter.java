@@ -1,18 +1,27 @@
 package water.compiler.util;
 
 import org.objectweb.asm.ClassWriter;
+import water.compiler.symbol.SymbolTable;
 
 public class WaterClassWriter extends ClassWriter {
 
-	private ClassLoader loader;
+	private final SymbolTable symbols;
 
-	public WaterClassWriter(int flags, ClassLoader loader) {
+	public WaterClassWriter(int flags, SymbolTable symbols) {
 		super(flags);
-		this.loader = loader == null ? ClassLoader.getSystemClassLoader() : loader;
+		this.symbols = symbols;
 	}
 
+	/**
+	 * Finds where two classes are merged when computing frames, through the symbol table rather than by loading the classes,
+	 * so this also works for the classes being compiled.
+	 */
 	@Override
-	protected ClassLoader getClassLoader() {
-		return loader;
+	protected String getCommonSuperClass(String type1, String type2) {
+		try {
+			return symbols.getCommonSuperClass(type1, type2);
+		} catch (ClassNotFoundException e) {
+			throw new TypeNotPresentException(e.getMessage(), e);
+		}
 	}
 }
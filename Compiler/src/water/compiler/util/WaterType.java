@@ -4,32 +4,44 @@ import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
-import water.compiler.FileContext;
 import water.compiler.compiler.Context;
-import water.runtime.annotation.Nullable;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * A type within Water, which adds nullability to a JVM type.
+ *
+ * Types are immutable and interned - every type is created through the static factories,
+ * which return the same instance for types which are identical in every part, including the nullability of their elements.
+ * Interned types are only weakly held, so those no longer used by any compilation are collected.
+ */
 public class WaterType {
 	private static final List<Integer> TYPE_SIZE = List.of(Type.DOUBLE, Type.FLOAT, Type.LONG, Type.INT, Type.SHORT, Type.CHAR, Type.BYTE);
+	/** Every type in use, keyed by all of its parts */
+	private static final Map<TypeKey, InternedType> INTERNED = new ConcurrentHashMap<>();
+	/** Receives the references of collected types, whose entries are then removed from the interned types */
+	private static final ReferenceQueue<WaterType> COLLECTED = new ReferenceQueue<>();
 	/* constant types for utility */
-	public static WaterType BOOLEAN_TYPE = new WaterType(Type.BOOLEAN_TYPE);
-	public static WaterType BYTE_TYPE = new WaterType(Type.BYTE_TYPE);
-	public static WaterType CHAR_TYPE = new WaterType(Type.CHAR_TYPE);
-	public static WaterType DOUBLE_TYPE = new WaterType(Type.DOUBLE_TYPE);
-	public static WaterType FLOAT_TYPE = new WaterType(Type.FLOAT_TYPE);
-	public static WaterType INT_TYPE = new WaterType(Type.INT_TYPE);
-	public static WaterType LONG_TYPE = new WaterType(Type.LONG_TYPE);
-	public static WaterType SHORT_TYPE = new WaterType(Type.SHORT_TYPE);
-	public static WaterType VOID_TYPE = new WaterType(Type.VOID_TYPE);
-	public static WaterType NULL_TYPE = WaterType.getObjectType("java/lang/Object");
+	public static final WaterType BOOLEAN_TYPE = fromAsm(Type.BOOLEAN_TYPE);
+	public static final WaterType BYTE_TYPE = fromAsm(Type.BYTE_TYPE);
+	public static final WaterType CHAR_TYPE = fromAsm(Type.CHAR_TYPE);
+	public static final WaterType DOUBLE_TYPE = fromAsm(Type.DOUBLE_TYPE);
+	public static final WaterType FLOAT_TYPE = fromAsm(Type.FLOAT_TYPE);
+	public static final WaterType INT_TYPE = fromAsm(Type.INT_TYPE);
+	public static final WaterType LONG_TYPE = fromAsm(Type.LONG_TYPE);
+	public static final WaterType SHORT_TYPE = fromAsm(Type.SHORT_TYPE);
+	public static final WaterType VOID_TYPE = fromAsm(Type.VOID_TYPE);
+	/** The type of the null literal, which can be assigned to any nullable object or array */
+	public static final WaterType NULL_TYPE = intern(Sort.NULL, Type.getObjectType("java/lang/Object"), true, null, null, null, null);
 	/** A constant defining a Type representing the java.lang.String class */
 	public static final WaterType STRING_TYPE = WaterType.getObjectType("java/lang/String");
 	/** A constant defining a Type representing the java.lang.Object class */
@@ -37,11 +49,6 @@ public class WaterType {
 	/** A constant defining a Type representing the java.lang.Object class, which is nullable (java.lang.Object?) */
 	public static final WaterType NULLABLE_OBJECT_TYPE = OBJECT_TYPE.asNullable();
 
-	static {
-		NULL_TYPE.isNullable = true;
-		NULL_TYPE.sort = Sort.NULL;
-	}
-
 	public enum Sort {
 		VOID,
 		BOOLEAN,
@@ -59,25 +66,137 @@ public class WaterType {
 	}
 
 
-	private Type asmType;
-	private Sort sort;
-	private boolean isNullable;
-	private WaterType returnType;
-	private WaterType[] argumentTypes;
-	private WaterType elementType;
-	private List<Integer> nullableDimensions;
+	private final Type asmType;
+	private final Sort sort;
+	private final boolean isNullable;
+	private final WaterType returnType;
+	private final WaterType[] argumentTypes;
+	private final WaterType elementType;
+	private final List<Integer> nullableDimensions;
 
-	public WaterType(Type asmType) {
+	private WaterType(Sort sort, Type asmType, boolean isNullable, WaterType returnType, WaterType[] argumentTypes, WaterType elementType, List<Integer> nullableDimensions) {
+		this.sort = sort;
 		this.asmType = asmType;
-		sort = Sort.values()[asmType.getSort()];
-		this.isNullable = false;
-		this.elementType = asmType.getSort() == Type.ARRAY ? new WaterType(asmType.getElementType()) : null;
+		this.isNullable = isNullable;
+		this.returnType = returnType;
+		this.argumentTypes = argumentTypes;
+		this.elementType = elementType;
+		this.nullableDimensions = nullableDimensions;
 	}
 
-	public WaterType(Sort sort) {
-		this.asmType = null;
-		this.sort = sort;
-		this.isNullable = false;
+	/**
+	 * Gets the single instance of a type, creating it if no instance is in use.
+	 * Element, return, and argument types are already interned, so they are compared by identity.
+	 */
+	private static WaterType intern(Sort sort, Type asmType, boolean isNullable, WaterType returnType, WaterType[] argumentTypes, WaterType elementType, List<Integer> nullableDimensions) {
+		removeCollected();
+
+		InternedType reference = INTERNED.get(new TypeKey(sort, asmType, isNullable, returnType, argumentTypes, elementType, nullableDimensions));
+		WaterType type = reference == null ? null : reference.get();
+		if(type != null) return type;
+
+		WaterType created = new WaterType(sort, asmType, isNullable, returnType,
+				argumentTypes == null ? null : argumentTypes.clone(),
+				elementType,
+				nullableDimensions == null ? null : List.copyOf(nullableDimensions));
+		// Keyed by the created type's own copies of the arrays, which the caller cannot change
+		TypeKey key = new TypeKey(sort, asmType, isNullable, returnType, created.argumentTypes, elementType, created.nullableDimensions);
+
+		WaterType[] interned = new WaterType[1];
+		INTERNED.compute(key, (k, existing) -> {
+			interned[0] = existing == null ? null : existing.get();
+			if(interned[0] != null) return existing;
+
+			interned[0] = created;
+			return new InternedType(created, k);
+		});
+		return interned[0];
+	}
+
+	private static void removeCollected() {
+		Reference<? extends WaterType> collected;
+		while((collected = COLLECTED.poll()) != null) {
+			InternedType type = (InternedType) collected;
+			INTERNED.remove(type.key, type);
+		}
+	}
+
+	/**
+	 * Every part of a type, which identifies it among interned types
+	 */
+	private static final class TypeKey {
+		private final Sort sort;
+		private final Type asmType;
+		private final boolean isNullable;
+		private final WaterType returnType;
+		private final WaterType[] argumentTypes;
+		private final WaterType elementType;
+		private final List<Integer> nullableDimensions;
+		private final int hash;
+
+		TypeKey(Sort sort, Type asmType, boolean isNullable, WaterType returnType, WaterType[] argumentTypes, WaterType elementType, List<Integer> nullableDimensions) {
+			this.sort = sort;
+			this.asmType = asmType;
+			this.isNullable = isNullable;
+			this.returnType = returnType;
+			this.argumentTypes = argumentTypes;
+			this.elementType = elementType;
+			this.nullableDimensions = nullableDimensions;
+
+			int hash = sort.hashCode();
+			hash = 31 * hash + Objects.hashCode(asmType);
+			hash = 31 * hash + Boolean.hashCode(isNullable);
+			hash = 31 * hash + Objects.hashCode(returnType);
+			hash = 31 * hash + Arrays.hashCode(argumentTypes);
+			hash = 31 * hash + Objects.hashCode(elementType);
+			hash = 31 * hash + Objects.hashCode(nullableDimensions);
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o) return true;
+			if(!(o instanceof TypeKey key)) return false;
+			return sort == key.sort
+					&& isNullable == key.isNullable
+					&& returnType == key.returnType
+					&& elementType == key.elementType
+					&& Objects.equals(asmType, key.asmType)
+					&& Arrays.equals(argumentTypes, key.argumentTypes)
+					&& Objects.equals(nullableDimensions, key.nullableDimensions);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * A weakly held interned type, which remembers its key so that its entry can be removed once it is collected
+	 */
+	private static final class InternedType extends WeakReference<WaterType> {
+		private final TypeKey key;
+
+		InternedType(WaterType type, TypeKey key) {
+			super(type, COLLECTED);
+			this.key = key;
+		}
+	}
+
+	/**
+	 * Creates a non-nullable type from a JVM type.
+	 * The element type of an array is its innermost element, as given by {@link Type#getElementType()}.
+	 */
+	private static WaterType fromAsm(Type asmType) {
+		Sort sort = Sort.values()[asmType.getSort()];
+
+		if(sort == Sort.METHOD) {
+			WaterType[] argumentTypes = Arrays.stream(asmType.getArgumentTypes()).map(WaterType::fromAsm).toArray(WaterType[]::new);
+			return intern(sort, asmType, false, fromAsm(asmType.getReturnType()), argumentTypes, null, null);
+		}
+		WaterType elementType = sort == Sort.ARRAY ? fromAsm(asmType.getElementType()) : null;
+		return intern(sort, asmType, false, null, null, elementType, null);
 	}
 
 	/**
@@ -92,32 +211,6 @@ public class WaterType {
 				getSort() != Sort.NULL;
 	}
 
-	/**
-	 *
-	 * Converts a type to the class of same type.
-	 *
-	 * Method types should not be passed to this method -> resulting in an IllegalArgumentException
-	 *
-	 * @param context The current compiler context - used for resolving the class loader
-	 * @return The Class representing the same type as the Type
-	 * @throws ClassNotFoundException Given an object type, or array type of objects, if the class cannot be found
-	 */
-	public Class<?> toClass(Context context) throws ClassNotFoundException {
-		return switch (asmType.getSort()) {
-			case Type.BOOLEAN -> boolean.class;
-			case Type.CHAR -> char.class;
-			case Type.BYTE -> byte.class;
-			case Type.SHORT -> short.class;
-			case Type.INT -> int.class;
-			case Type.FLOAT -> float.class;
-			case Type.LONG -> long.class;
-			case Type.DOUBLE -> double.class;
-			case Type.ARRAY -> getElementType().toClass(context).arrayType();
-			case Type.OBJECT -> Class.forName(getClassName(), false, context.getLoader());
-			default -> throw new IllegalArgumentException("Unexpected value: " + asmType.getSort());
-		};
-	}
-
 	/**
 	 *
 	 * Tests if two types can be implicitly cast.
@@ -139,7 +232,7 @@ public class WaterType {
 		}
 		if(isObject() && from.isObject()) {
 			if(!isNullable() && from.isNullable()) return false;
-			return toClass(context).isAssignableFrom(from.toClass(context));
+			return context.getSymbols().isAssignableFrom(this, from);
 		}
 
 		else if(isPrimitive() && from.isPrimitive()) {
@@ -525,21 +618,16 @@ public class WaterType {
 	}
 
 	public WaterType asNullable() {
-		WaterType type = copy();
-		type.isNullable = true;
-		return type;
+		return asNullable(true);
 	}
 
 	public WaterType asNullable(boolean isNullable) {
-		WaterType type = copy();
-		type.isNullable = isNullable;
-		return type;
+		if(this.isNullable == isNullable) return this;
+		return intern(sort, asmType, isNullable, returnType, argumentTypes, elementType, nullableDimensions);
 	}
 
 	public WaterType asNonNullable() {
-		WaterType type = copy();
-		type.isNullable = false;
-		return type;
+		return asNullable(false);
 	}
 
 	public boolean isObject() {
@@ -574,6 +662,9 @@ public class WaterType {
 		return asmType.getSize();
 	}
 
+	/**
+	 * @return The parameter types of a method type - this array is shared, and must not be modified
+	 */
 	public WaterType[] getArgumentTypes() {
 		return argumentTypes;
 	}
@@ -607,6 +698,8 @@ public class WaterType {
 
 	@Override
 	public boolean equals(Object obj) {
+		// Interned types are only the same instance if every part is identical, whereas equality only considers the outermost nullability
+		if(this == obj) return true;
 		if(!(obj instanceof WaterType)) {
 			return false;
 		}
@@ -620,18 +713,6 @@ public class WaterType {
 		return asmType.hashCode();
 	}
 
-	public WaterType copy() {
-		WaterType type = new WaterType(sort);
-		type.asmType = asmType;
-		type.sort = sort;
-		type.isNullable = isNullable;
-		type.returnType = returnType;
-		type.argumentTypes = argumentTypes;
-		type.elementType = elementType;
-		type.nullableDimensions = nullableDimensions;
-		return type;
-	}
-
 	/**
 	 * Converts a type to a String.
 	 * This String representation differs from Type.toString()
@@ -665,129 +746,65 @@ public class WaterType {
 	}
 
 	public static WaterType getMethodType(String descriptor) {
-		WaterType type = new WaterType(Type.getMethodType(descriptor));
-		type.argumentTypes = Arrays.stream(type.getRawType().getArgumentTypes()).map(WaterType::new).toArray(WaterType[]::new);
-		type.returnType = new WaterType(type.getRawType().getReturnType());
-		return type;
+		return fromAsm(Type.getMethodType(descriptor));
 	}
 
 	public static WaterType getMethodType(WaterType returnType, WaterType... parameterTypes) {
-		WaterType type = new WaterType(Sort.METHOD);
-		type.returnType = returnType;
-		type.argumentTypes = parameterTypes;
-		return type;
+		return intern(Sort.METHOD, null, false, returnType, parameterTypes, null, null);
 	}
 
 	public static WaterType getArrayType(WaterType elementType, int dimensions, List<Integer> nullableDimensions) {
 		if(dimensions > 1) {
 			elementType = getArrayType(elementType, dimensions - 1, nullableDimensions);
-			if(nullableDimensions != null && nullableDimensions.contains(dimensions - 1)) elementType.isNullable = true;
+			if(nullableDimensions != null && nullableDimensions.contains(dimensions - 1)) elementType = elementType.asNullable();
 		}
-		WaterType type = new WaterType(Sort.ARRAY);
-		type.elementType = elementType;
-		type.asmType = Type.getType("[" + elementType.getRawType().getDescriptor());
-		type.nullableDimensions = nullableDimensions;
-		return type;
+		return intern(Sort.ARRAY, Type.getType("[" + elementType.getRawType().getDescriptor()), false, null, null, elementType, nullableDimensions);
 	}
 
 	public static WaterType getObjectType(String internalName) {
-		return new WaterType(Type.getObjectType(internalName));
+		return fromAsm(Type.getObjectType(internalName));
 	}
 
 	public static WaterType getType(String descriptor) {
-		return new WaterType(Type.getType(descriptor));
-	}
-
-	public static WaterType getType(Class<?> clazz) {
-		return new WaterType(Type.getType(clazz));
+		return fromAsm(Type.getType(descriptor));
 	}
 
-	private static WaterType getArrayFromAnnotation(Class<?> typeClass, Nullable annotation) {
-		int dim = 1;
-		Class<?> elementClass = typeClass.getComponentType();
+	/**
+	 * Creates a type from a descriptor, and the value of the {@link water.runtime.annotation.Nullable} annotation on it.
+	 *
+	 * @param descriptor The descriptor of the type
+	 * @param nullableDimensions The nullable dimensions ('d') of the annotation, or null if the type is not annotated
+	 * @return The type
+	 */
+	public static WaterType getType(String descriptor, int[] nullableDimensions) {
+		WaterType type = WaterType.getType(descriptor);
 
-		while(elementClass.isArray()) {
-			dim++;
-			elementClass = elementClass.getComponentType();
+		if(type.isArray()) {
+			return getArrayFromAnnotation(type, nullableDimensions);
+		}
+		else if(nullableDimensions != null) {
+			return type.asNullable();
 		}
-		WaterType elementType = WaterType.getType(elementClass);
+		return type;
+	}
+
+	private static WaterType getArrayFromAnnotation(WaterType arrayType, int[] annotation) {
+		int dim = arrayType.getRawType().getDimensions();
+		WaterType elementType = fromAsm(arrayType.getRawType().getElementType());
 
 		boolean isNullable = false;
 		List<Integer> nullableDimensions = null;
 		if(annotation != null) {
-			nullableDimensions = Arrays.stream(annotation.d()).boxed().collect(Collectors.toList());
+			nullableDimensions = Arrays.stream(annotation).boxed().collect(Collectors.toList());
 			if(nullableDimensions.contains(-1)) {
 				nullableDimensions.remove(Integer.valueOf(-1));
 				isNullable = true;
 			}
 			if(nullableDimensions.contains(-2)) {
 				nullableDimensions.remove(Integer.valueOf(-2));
-				elementType.isNullable = true;
+				elementType = elementType.asNullable();
 			}
 		}
 		return WaterType.getArrayType(elementType, dim, nullableDimensions).asNullable(isNullable);
 	}
-
-	public static WaterType getType(Field field) {
-		WaterType type = WaterType.getType(field.getType());
-
-		Class<?> fieldClass = field.getType();
-		if(fieldClass.isArray()) {
-			type = getArrayFromAnnotation(fieldClass, field.getAnnotation(Nullable.class));
-		}
-		else if(field.getAnnotation(Nullable.class) != null) {
-			type.isNullable = true;
-		}
-		return type;
-	}
-
-	public static WaterType getType(Method method) {
-		Parameter[] parameters = method.getParameters();
-
-		ArrayList<WaterType> parameterTypes = new ArrayList<>();
-		for(Parameter parameter : parameters) {
-			Class<?> typeClass = parameter.getType();
-
-			WaterType type = WaterType.getType(typeClass);
-
-			if(typeClass.isArray()) {
-				type = getArrayFromAnnotation(typeClass, parameter.getAnnotation(Nullable.class));
-			}
-			else if(parameter.getAnnotation(Nullable.class) != null) {
-				type.isNullable = true;
-			}
-			parameterTypes.add(type);
-		}
-		WaterType returnType = WaterType.getType(method.getReturnType());
-
-		Class<?> returnClass = method.getReturnType();
-
-		if(returnClass.isArray()) {
-			returnType = getArrayFromAnnotation(returnClass, method.getAnnotation(Nullable.class));
-		}
-		else if(method.getAnnotation(Nullable.class) != null) {
-			returnType.isNullable = true;
-		}
-		return WaterType.getMethodType(returnType, parameterTypes.toArray(WaterType[]::new));
-	}
-
-	public static WaterType getType(Constructor<?> constructor) {
-		Parameter[] parameters = constructor.getParameters();
-
-		ArrayList<WaterType> parameterTypes = new ArrayList<>();
-		for(Parameter parameter : parameters) {
-			Class<?> typeClass = parameter.getType();
-
-			WaterType type = WaterType.getType(typeClass);
-			if(typeClass.isArray()) {
-				type = getArrayFromAnnotation(typeClass, parameter.getAnnotation(Nullable.class));
-			}
-			else if(parameter.getAnnotation(Nullable.class) != null) {
-				type.isNullable = true;
-			}
-			parameterTypes.add(type);
-		}
-
-		return WaterType.getMethodType(WaterType.VOID_TYPE, parameterTypes.toArray(WaterType[]::new));
-	}
 }
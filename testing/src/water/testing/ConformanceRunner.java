@@ -0,0 +1,312 @@
+package water.testing;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.beust.jcommander.Parameters;
+import water.compiler.CompilationResult;
+import water.compiler.CompilerOptions;
+import water.compiler.Diagnostic;
+import water.compiler.WaterClassLoader;
+import water.compiler.WaterCompiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the golden tests in one JVM. Each test ("Name.wtr") is compiled alone through {@link WaterCompiler#compile(Map, CompilerOptions)},
+ * and if it compiles, "NameWtr.main" is run in a class loader of its own. The output of both is compared against "Name.wtr.txt":
+ * standard output, then "$stderr:", then standard error, where the location of the first error is replaced by "[LOC]".
+ *
+ * Tests are run in parallel. System.out and System.err are replaced by streams which write to the output of the test
+ * running on the current thread (or a thread it started), so each test's output is captured separately.
+ */
+@Parameters(separators = " |=")
+public class ConformanceRunner {
+	private static final String STDERR_SEPARATOR = "$stderr:\n";
+	private static final Pattern LOCATION = Pattern.compile("^\\[.*\\]");
+
+	@Parameter(names = { "-h", "--help" }, description = "Shows a help page", help = true)
+	private boolean help = false;
+
+	@Parameter(names = { "-o", "--output-record" }, description = "Records the output of each test as its expected output, rather than checking it")
+	private boolean outputRecord = false;
+
+	@Parameter(names = { "-s", "--separate-output" }, description = "Shows stdout and stderr separately on failure")
+	private boolean separateOutput = false;
+
+	@Parameter(names = { "-j", "--threads" }, description = "The number of tests run at once")
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	@Parameter(names = { "--timeout" }, description = "The number of seconds a test may run for before it fails")
+	private int timeout = 30;
+
+	@Parameter(description = "The directory containing the tests, by default testing/tests")
+	private List<String> directories = new ArrayList<>();
+
+	/** The captured output of the test running on each thread, or null for threads not running a test */
+	private static final InheritableThreadLocal<TestOutput> CURRENT_OUTPUT = new InheritableThreadLocal<>();
+
+	private record TestOutput(ByteArrayOutputStream stdout, ByteArrayOutputStream stderr) {
+		TestOutput() {
+			this(new ByteArrayOutputStream(), new ByteArrayOutputStream());
+		}
+	}
+
+	private record TestResult(Path file, String stdout, String stderr) {}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		ConformanceRunner runner = new ConformanceRunner();
+		JCommander jCommander = JCommander.newBuilder().addObject(runner).build();
+		jCommander.setProgramName("conformance");
+
+		try {
+			jCommander.parse(args);
+			if(runner.directories.size() > 1) throw new ParameterException("Only one test directory may be given");
+		} catch (ParameterException e) {
+			System.err.println("Invalid Parameters: " + e.getLocalizedMessage());
+			jCommander.usage();
+			System.exit(1);
+		}
+		if(runner.help) {
+			jCommander.usage();
+			return;
+		}
+
+		System.exit(runner.run());
+	}
+
+	private int run() throws IOException, InterruptedException {
+		Path directory = Path.of(directories.isEmpty() ? "testing/tests" : directories.get(0));
+
+		List<Path> tests;
+		try(Stream<Path> listing = Files.list(directory)) {
+			tests = listing.filter(p -> p.toString().endsWith(".wtr")).sorted().collect(Collectors.toList());
+		}
+
+		PrintStream stdout = System.out;
+		PrintStream stderr = System.err;
+		System.setOut(new PrintStream(new CapturedStream(stdout, false), true));
+		System.setErr(new PrintStream(new CapturedStream(stderr, true), true));
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(threads, 1), task -> {
+			Thread worker = new Thread(task, "water-conformance-worker");
+			// A test which never finishes should not stop the runner from exiting
+			worker.setDaemon(true);
+			return worker;
+		});
+
+		int passing = 0;
+		int failing = 0;
+
+		try {
+			List<Future<TestResult>> results = new ArrayList<>();
+			for(Path test : tests) {
+				results.add(executor.submit(() -> runTest(test)));
+			}
+
+			for(int i = 0; i < tests.size(); i++) {
+				Path test = tests.get(i);
+				TestResult result;
+				try {
+					result = results.get(i).get(timeout, TimeUnit.SECONDS);
+				} catch (TimeoutException e) {
+					results.get(i).cancel(true);
+					stderr.printf("Test in file %s failed:%nTimed out after %d seconds%n", test, timeout);
+					failing++;
+					continue;
+				} catch (ExecutionException e) {
+					stderr.printf("Test in file %s failed:%n", test);
+					e.getCause().printStackTrace(stderr);
+					failing++;
+					continue;
+				}
+
+				if(outputRecord) {
+					stdout.printf("Generating tests for %s...%n", test);
+					Files.writeString(expectedFile(test), result.stdout() + STDERR_SEPARATOR + result.stderr());
+				}
+				else if(check(result, stdout, stderr)) passing++;
+				else failing++;
+			}
+		} finally {
+			executor.shutdownNow();
+			System.setOut(stdout);
+			System.setErr(stderr);
+		}
+
+		if(!outputRecord) {
+			stdout.printf("%nRan all tests [%d of %d succeeded] [%d of %d failed]%n", passing, tests.size(), failing, tests.size());
+		}
+		return failing == 0 ? 0 : 1;
+	}
+
+	/**
+	 * Compiles a test, and runs it if it compiled, on the current thread.
+	 * @param test The source file of the test
+	 * @return The output of compiling and running the test
+	 * @throws IOException If the test could not be read
+	 */
+	private TestResult runTest(Path test) throws IOException {
+		String fileName = test.getFileName().toString();
+		TestOutput output = new TestOutput();
+
+		CompilerOptions options = new CompilerOptions();
+		// Tests are already run in parallel
+		options.setThreads(1);
+
+		CompilationResult compilation = WaterCompiler.compile(Map.of(fileName, Files.readString(test)), options);
+
+		PrintStream stderr = new PrintStream(output.stderr(), true);
+		if(!compilation.isSuccessful()) {
+			// Only the first error is reported by the command line compiler
+			Diagnostic diagnostic = compilation.getDiagnostics().get(0);
+			stderr.println(diagnostic.formattedMessage());
+		}
+		else {
+			CURRENT_OUTPUT.set(output);
+			try {
+				runMain(fileName.substring(0, fileName.indexOf('.')) + "Wtr", compilation.getClasses(), stderr);
+			} finally {
+				CURRENT_OUTPUT.remove();
+			}
+		}
+
+		String stderrText = LOCATION.matcher(output.stderr().toString()).replaceFirst("[LOC]");
+		return new TestResult(test, output.stdout().toString(), stderrText);
+	}
+
+	/**
+	 * Runs the main method of a test's class, reporting an uncaught exception as the 'java' launcher does.
+	 * @param mainClassName The simple name of the class containing the main method
+	 * @param classes The classes of the test, keyed by fully qualified name
+	 * @param stderr Where an uncaught exception is reported
+	 */
+	private void runMain(String mainClassName, Map<String, byte[]> classes, PrintStream stderr) {
+		String mainClass = classes.keySet().stream()
+				.filter(name -> name.equals(mainClassName) || name.endsWith("." + mainClassName))
+				.findFirst().orElse(null);
+
+		if(mainClass == null) {
+			stderr.printf("Error: Could not find or load main class %s%n", mainClassName);
+			return;
+		}
+
+		Map<String, byte[]> internalClasses = classes.entrySet().stream()
+				.collect(Collectors.toMap(e -> e.getKey().replace('.', '/'), Map.Entry::getValue));
+		WaterClassLoader loader = new WaterClassLoader(ConformanceRunner.class.getClassLoader(), internalClasses);
+
+		Thread thread = Thread.currentThread();
+		ClassLoader previousLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(loader);
+
+		try {
+			Method main = Class.forName(mainClass, false, loader).getMethod("main", String[].class);
+			main.invoke(null, (Object) new String[0]);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+
+			// Frames from the reflective call inwards belong to the runner, not the test
+			StackTraceElement[] trace = cause.getStackTrace();
+			int testFrames = 0;
+			while(testFrames < trace.length && !trace[testFrames].getClassName().startsWith("jdk.internal.reflect.")
+					&& !trace[testFrames].getClassName().equals(Method.class.getName())) {
+				testFrames++;
+			}
+			cause.setStackTrace(Arrays.copyOf(trace, testFrames));
+
+			stderr.print("Exception in thread \"main\" ");
+			cause.printStackTrace(stderr);
+		} catch (ReflectiveOperationException e) {
+			stderr.printf("Error: Main method not found in class %s%n", mainClass);
+		} finally {
+			thread.setContextClassLoader(previousLoader);
+		}
+	}
+
+	/**
+	 * Compares the output of a test against its expected output, reporting any difference as test.py did.
+	 * @return If the test passed
+	 */
+	private boolean check(TestResult result, PrintStream stdout, PrintStream stderr) throws IOException {
+		String[] expected = Files.readString(expectedFile(result.file())).split(Pattern.quote(STDERR_SEPARATOR), 2);
+		String expectedStdout = expected[0];
+		String expectedStderr = expected.length > 1 ? expected[1] : "";
+
+		if(expectedStdout.equals(result.stdout()) && expectedStderr.equals(result.stderr())) return true;
+
+		if(separateOutput) {
+			if(!expectedStdout.equals(result.stdout())) {
+				stderr.printf("Test in file %s failed:%nStdout Expected:%n%s%nGot:%s%n", result.file(), expectedStdout, result.stdout());
+			}
+			if(!expectedStderr.equals(result.stderr())) {
+				stderr.printf("Test in file %s failed:%nStderr Expected:%n%s%nGot:%s%n", result.file(), expectedStderr, result.stderr());
+			}
+		}
+		else {
+			String expectedOutput = (expectedStdout + '\n' + expectedStderr).strip();
+			String output = (result.stdout() + '\n' + result.stderr()).strip();
+			stderr.printf("Test in file %s failed:%nExpected Output:%n%s%nGot:%n%s%n", result.file(), expectedOutput, output);
+			stdout.println("(Output is stripped)");
+		}
+		return false;
+	}
+
+	private static Path expectedFile(Path test) {
+		return test.resolveSibling(test.getFileName() + ".txt");
+	}
+
+	/**
+	 * Writes to the standard output or error of the test running on the current thread,
+	 * or to the original stream if no test is running on it.
+	 */
+	private static class CapturedStream extends OutputStream {
+		private final PrintStream original;
+		private final boolean isStderr;
+
+		CapturedStream(PrintStream original, boolean isStderr) {
+			this.original = original;
+			this.isStderr = isStderr;
+		}
+
+		private OutputStream target() {
+			TestOutput output = CURRENT_OUTPUT.get();
+			if(output == null) return original;
+			return isStderr ? output.stderr() : output.stdout();
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			target().write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			target().write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			target().flush();
+		}
+	}
+}
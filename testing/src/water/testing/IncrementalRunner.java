@@ -0,0 +1,252 @@
+package water.testing;
+
+import water.compiler.Main;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the incremental build tests, which the golden tests cannot cover. Each test compiles its files with '-i',
+ * edits them, and compiles them again with the same cache. The output directory must then hold exactly the classes
+ * of a clean build of the edited files, byte for byte.
+ *
+ * The compiler is run through {@link Main}, which exits the JVM if a build fails.
+ */
+public class IncrementalRunner {
+	/**
+	 * An incremental build test
+	 * @param name The name of the test
+	 * @param before The content of each file in the first build, keyed by file name
+	 * @param after The content of each file in the second build, keyed by file name, which may add, change or leave out files
+	 */
+	private record IncrementalTest(String name, Map<String, String> before, Map<String, String> after) {}
+
+	private static final List<IncrementalTest> TESTS = List.of(
+			new IncrementalTest(
+					"Inherited member changed",
+					files(
+							"Base.wtr", """
+									package p;
+
+									class Base {
+										function get() -> int {
+											return 1;
+										}
+									}
+									""",
+							"Derived.wtr", """
+									package p;
+
+									import p.Base;
+
+									class Derived : Base {
+									}
+									""",
+							"Use.wtr", """
+									package p;
+
+									import p.Derived;
+
+									function main() {
+										println(new Derived().get());
+									}
+									"""
+					),
+					files(
+							"Base.wtr", """
+									package p;
+
+									class Base {
+										function get() -> String {
+											return "a";
+										}
+									}
+									"""
+					)
+			),
+			new IncrementalTest(
+					"Class removed from a file",
+					files(
+							"A.wtr", """
+									class Old {
+									}
+
+									class Kept {
+									}
+									"""
+					),
+					files(
+							"A.wtr", """
+									class Kept {
+									}
+									"""
+					)
+			),
+			new IncrementalTest(
+					"File removed from the build",
+					files(
+							"A.wtr", """
+									function main() {
+										println("a");
+									}
+									""",
+							"B.wtr", """
+									class Unused {
+									}
+									"""
+					),
+					files(
+							"B.wtr", null
+					)
+			),
+			new IncrementalTest(
+					"Class moved between files",
+					files(
+							"A.wtr", """
+									class Moved {
+									}
+									""",
+							"B.wtr", """
+									class Kept {
+									}
+									"""
+					),
+					files(
+							"A.wtr", """
+									class Other {
+									}
+									""",
+							"B.wtr", """
+									class Kept {
+									}
+
+									class Moved {
+									}
+									"""
+					)
+			)
+	);
+
+	public static void main(String[] args) throws IOException {
+		int passing = 0;
+
+		for(IncrementalTest test : TESTS) {
+			Path directory = Files.createTempDirectory("water-incremental");
+			try {
+				List<String> differences = run(test, directory);
+
+				if(differences.isEmpty()) {
+					passing++;
+				}
+				else {
+					System.err.printf("Test '%s' failed:%n%s%n", test.name(), String.join("\n", differences));
+				}
+			} finally {
+				delete(directory);
+			}
+		}
+
+		int failing = TESTS.size() - passing;
+		System.out.printf("%nRan all tests [%d of %d succeeded] [%d of %d failed]%n", passing, TESTS.size(), failing, TESTS.size());
+		if(failing != 0) System.exit(1);
+	}
+
+	/**
+	 * Runs a test in an empty directory.
+	 * @return A description of each difference between the incremental and the clean build
+	 */
+	private static List<String> run(IncrementalTest test, Path directory) throws IOException {
+		Path sources = directory.resolve("src");
+		Path incremental = directory.resolve("incremental");
+		Path clean = directory.resolve("clean");
+		Path cache = directory.resolve("build.cache");
+
+		writeFiles(sources, test.before());
+		compile(sources, test.before().keySet(), "-i", "-d", incremental.toString(), "--cache", cache.toString());
+
+		Map<String, String> edited = new LinkedHashMap<>(test.before());
+		test.after().forEach((name, content) -> {
+			if(content == null) edited.remove(name);
+			else edited.put(name, content);
+		});
+		writeFiles(sources, edited);
+		compile(sources, edited.keySet(), "-i", "-d", incremental.toString(), "--cache", cache.toString());
+
+		compile(sources, edited.keySet(), "-d", clean.toString());
+
+		return compare(clean, incremental);
+	}
+
+	private static void compile(Path sources, Iterable<String> files, String... options) {
+		List<String> args = new ArrayList<>(Arrays.asList(options));
+		for(String file : files) {
+			args.add(sources.resolve(file).toString());
+		}
+		Main.main(args.toArray(String[]::new));
+	}
+
+	/**
+	 * @return A description of each class which is missing from, added to, or different in the incremental build
+	 */
+	private static List<String> compare(Path clean, Path incremental) throws IOException {
+		Map<Path, byte[]> expected = readClasses(clean);
+		Map<Path, byte[]> actual = readClasses(incremental);
+
+		List<String> differences = new ArrayList<>();
+		for(Path klass : new TreeSet<>(expected.keySet())) {
+			if(!actual.containsKey(klass)) differences.add("Missing: " + klass);
+			else if(!Arrays.equals(expected.get(klass), actual.get(klass))) differences.add("Differs from a clean build: " + klass);
+		}
+		for(Path klass : new TreeSet<>(actual.keySet())) {
+			if(!expected.containsKey(klass)) differences.add("Not in a clean build: " + klass);
+		}
+		return differences;
+	}
+
+	private static Map<Path, byte[]> readClasses(Path directory) throws IOException {
+		Map<Path, byte[]> classes = new LinkedHashMap<>();
+		if(!Files.isDirectory(directory)) return classes;
+
+		try(Stream<Path> walk = Files.walk(directory)) {
+			for(Path file : walk.filter(Files::isRegularFile).collect(Collectors.toList())) {
+				classes.put(directory.relativize(file), Files.readAllBytes(file));
+			}
+		}
+		return classes;
+	}
+
+	private static void writeFiles(Path directory, Map<String, String> files) throws IOException {
+		Files.createDirectories(directory);
+		for(Map.Entry<String, String> file : files.entrySet()) {
+			Files.writeString(directory.resolve(file.getKey()), file.getValue());
+		}
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try(Stream<Path> walk = Files.walk(directory)) {
+			for(Path file : walk.sorted((a, b) -> b.compareTo(a)).collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	/**
+	 * @param namesAndContents Each file name, followed by its content, or null to leave the file out of a build
+	 */
+	private static Map<String, String> files(String... namesAndContents) {
+		Map<String, String> files = new LinkedHashMap<>();
+		for(int i = 0; i < namesAndContents.length; i += 2) {
+			files.put(namesAndContents[i], namesAndContents[i + 1]);
+		}
+		return files;
+	}
+}